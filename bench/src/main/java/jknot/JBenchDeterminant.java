@@ -0,0 +1,107 @@
+package jknot;
+
+import java.math.BigInteger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Determinant of the n-1 minor for random Gauss codes of growing size, by each
+// backend: sparse BigInteger elimination, modular with CRT, and dense
+// elimination.  The matrix is made once per trial and the backends are checked
+// against the sparse one there.  Dense elimination goes as the cube of the
+// underpasses, so larger matrices are refused in setup and reported as errors.
+// Run with gradle jmh -Pjmh=Determinant.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations=3,time=2)
+@Measurement(iterations=5,time=2)
+@Fork(1)
+public class JBenchDeterminant
+{
+	static final int MAXDENSE=1000;	// underpasses
+
+	@State(Scope.Benchmark)
+	public static class Minor
+	{
+		@Param({"10","20","50","100","200","500","1000","2000"})
+		public int underpasses;
+		@Param({"sparse","modular","dense"})
+		public String backend;
+		@Param({"-1"})
+		public int t;
+
+		JAlexander matrix;
+		BigInteger[][] dense;
+
+		@Setup
+		public void Build()
+		{
+			int n=underpasses;
+			if(backend.equals("dense") && n>MAXDENSE)
+				throw new IllegalArgumentException(n+" underpasses, more than "+MAXDENSE+" for dense elimination");
+			JAnalysis a=new JAnalysis(new JEngine(false,false,t),null);
+			a.ParseGauss(Gauss(new Random(1),n));
+			if(a.Alexander==null)
+				throw new IllegalStateException(a.Result.error);
+			matrix=a.Alexander;
+			BigInteger det=matrix.Determinant(n-1,t);
+			if(backend.equals("modular") && !matrix.Modular(n-1,t,true).equals(det))
+				throw new IllegalStateException("modular and sparse determinants differ at "+n);
+			if(backend.equals("dense"))
+			{
+				dense=JDense.Matrix(matrix,n-1,t);
+				if(!JDense.Bareiss(dense,n-1).equals(det))
+					throw new IllegalStateException("sparse and dense determinants differ at "+n);
+			}
+		}
+	}
+
+	@Benchmark
+	public BigInteger Determinant(Minor s)
+	{
+		int m=s.underpasses-1;
+		if(s.backend.equals("modular"))
+			return s.matrix.Modular(m,s.t,true);
+		if(s.backend.equals("dense"))
+			return JDense.Bareiss(s.dense,m);
+		return s.matrix.Determinant(m,s.t);
+	}
+
+	// Each label once over and once under, in random order and with random signs
+	static String Gauss(Random random, int n)
+	{
+		int[] label=new int[2*n];
+		for(int i=0;i<2*n;i++)
+			label[i]=i/2+1;
+		for(int i=2*n-1;i>0;i--)
+		{
+			int j=random.nextInt(i+1),tmp=label[i];
+			label[i]=label[j];
+			label[j]=tmp;
+		}
+		boolean[] over=new boolean[n+1],plus=new boolean[n+1],seen=new boolean[n+1];
+		for(int i=1;i<=n;i++)
+		{
+			over[i]=random.nextBoolean();
+			plus[i]=random.nextBoolean();
+		}
+		StringBuilder s=new StringBuilder();
+		for(int i=0;i<2*n;i++)
+		{
+			int l=label[i];
+			s.append(over[l]!=seen[l]?'a':'b').append(plus[l]?'+':'-').append(l).append(i<2*n-1?",":"");
+			seen[l]=true;
+		}
+		return s.toString();
+	}
+}
@@ -0,0 +1,130 @@
+package jknot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+// Polymers the benchmarks run on, the same for every run of a given length.
+// A coil is a pivot sample of JGenerator, swollen like a polymer in good
+// solvent.  A globule fills a cube layer by layer, rows of each layer at right
+// angles to those of the layer below, so nearly every bead lies under or over
+// segments of other layers; it is closed by a path around the outside of the
+// cube.  Crossings grow about linearly with length for a coil and as
+// length^(4/3) for a globule.  A coil of 10^6 beads takes minutes to sample, so
+// coils are kept in the temporary directory as binary conformations and read
+// back by later runs.
+public class JBenchInput
+{
+	static final long SEED=1;
+
+	public static JPolymer Polymer(String compactness, int n)
+	{
+		if(compactness.equals("coil"))
+			return Coil(n);
+		if(compactness.equals("globule"))
+			return Globule(n);
+		throw new IllegalArgumentException("compactness is coil or globule, not "+compactness);
+	}
+
+	public static JPolymer Coil(int n)
+	{
+		File f=new File(System.getProperty("java.io.tmpdir"),"jknot-coil-"+n+"-"+SEED+".jkn");
+		JPolymer p=new JPolymer();
+		if(f.exists())
+		{
+			try
+			{
+				JTrajectoryReader r=new JTrajectoryReader(f.getPath());
+				boolean read=r.Next(p,0);
+				r.close();
+				if(read && p.size==n)
+					return p;
+			}
+			catch(IOException ex)	// sample it again
+			{
+			}
+		}
+		p=new JGenerator(n,SEED).Next();
+		try	// another run may be writing the same file
+		{
+			File tmp=File.createTempFile("jknot-coil",".jkn",f.getParentFile());
+			JTrajectoryWriter w=new JTrajectoryWriter(tmp.getPath());
+			w.Add(p);
+			w.close();
+			if(!tmp.renameTo(f))
+				tmp.delete();
+		}
+		catch(IOException ex)
+		{
+		}
+		return p;
+	}
+
+	// Beads fill an l*l*l cube from one corner, then the path returns outside the
+	// cube to the first bead: up one site, out past x=0, down below the first
+	// layer and back along y and x.  The number of beads filled is the one for
+	// which the whole polygon has n beads.
+	public static JPolymer Globule(int n)
+	{
+		if(n<10 || n%2!=0)
+			throw new IllegalArgumentException("a globule has an even number of beads, at least 10");
+		int l=Math.max(2,(int)Math.round(Math.cbrt(n)));
+		int max=n-4;
+		int[] x=new int[max],y=new int[max],z=new int[max];
+		boolean fx=false,fy=false;	// layer starts at the far corner in x, y
+		for(int i=0;i<max;i++)
+		{
+			int layer=i/(l*l),k=i%(l*l);
+			int row=k/l,col=k%l;
+			int a=(row%2==0?col:l-1-col),b=row;
+			if(layer%2!=0)
+			{
+				int t=a;
+				a=b;
+				b=t;
+			}
+			if(k==0 && i>0)	// start above the end of the layer below
+			{
+				fx=(x[i-1]==l-1);
+				fy=(y[i-1]==l-1);
+			}
+			x[i]=(fx?l-1-a:a);
+			y[i]=(fy?l-1-b:b);
+			z[i]=layer;
+		}
+		int fill=max;
+		while(fill>0 && fill+x[fill-1]+y[fill-1]+z[fill-1]+5!=n)
+			fill--;
+
+		JPolymer p=new JPolymer();
+		p.size=n;
+		p.x=new int[n];
+		p.y=new int[n];
+		p.z=new int[n];
+		int i;
+		for(i=0;i<fill;i++)
+			p.Put(i,x[i]+1,y[i]+1,z[i]+1,0);
+		int ex=x[fill-1],ey=y[fill-1],ez=z[fill-1];
+		p.Put(i++,ex+1,ey+1,ez+2,0);
+		for(int a=ex-1;a>=-1;a--)
+			p.Put(i++,a+1,ey+1,ez+2,0);
+		for(int c=ez;c>=-1;c--)
+			p.Put(i++,0,ey+1,c+1,0);
+		for(int b=ey-1;b>=0;b--)
+			p.Put(i++,0,b+1,0,0);
+		p.Put(i++,1,1,0,0);
+		if(i!=n)
+			throw new IllegalStateException("globule has "+i+" beads, not "+n);
+		p.side=p.Side();
+		return p;
+	}
+
+	// Coordinates as a file holds them, one bead per line
+	public static byte[] Text(JPolymer p)
+	{
+		StringBuilder s=new StringBuilder(12*p.size);
+		for(int i=0;i<p.size;i++)
+			s.append(p.x[i]).append(' ').append(p.y[i]).append(' ').append(p.z[i]).append('\n');
+		return s.toString().getBytes(StandardCharsets.US_ASCII);
+	}
+}
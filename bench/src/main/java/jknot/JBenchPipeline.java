@@ -0,0 +1,222 @@
+package jknot;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Each stage of the pipeline alone, on what the stages before it made of a
+// JBenchInput polymer; those are run once per trial, outside the measurement.
+// Reduction changes the sequence it works on, so Reduce runs on a copy, and Copy
+// gives the time to take away.  Dowker and Alexander run on the sequence before
+// reduction, as with reduce off: the benchmark polymers are unknots and reduce
+// to almost nothing.  Polymers with more crossings than a stage can hold in
+// memory are refused in setup and reported as errors.  Run with gradle jmh.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations=3,time=2)
+@Measurement(iterations=5,time=2)
+@Fork(1)
+public class JBenchPipeline
+{
+	static final int MAXCROSSINGS=1<<22;	// partners, reduction and Dowker keep several tables this size
+	static final int MAXMATRIX=10000;	// underpasses; the text of the Alexander matrix grows as their square
+
+	@State(Scope.Benchmark)
+	public static class Input
+	{
+		@Param({"64","1000","10000","100000","1000000"})
+		public int length;
+		@Param({"coil","globule"})
+		public String compactness;
+
+		JEngine engine;
+		JPolymer polymer;
+
+		@Setup
+		public void Build()
+		{
+			engine=new JEngine(false,true,-1);
+			polymer=JBenchInput.Polymer(compactness,length);
+			Prepare();
+		}
+
+		// What a stage needs besides the polymer, after what the state it
+		// extends needs; one @Setup calls it, as JMH runs those in no set order
+		void Prepare()
+		{
+		}
+
+		JAnalysis Analysis()
+		{
+			return new JAnalysis(engine,polymer);
+		}
+	}
+
+	public static class Text extends Input
+	{
+		byte[] text;
+		String string;	// the same text, as the applet passes it
+
+		void Prepare()
+		{
+			text=JBenchInput.Text(polymer);
+			string=new String(text,StandardCharsets.US_ASCII);
+		}
+	}
+
+	public static class Detected extends Input
+	{
+		JCrossTable crossing;
+
+		void Prepare()
+		{
+			JAnalysis a=Analysis();
+			a.IndexPolymer(polymer.size);
+			a.DetectCrossings();
+			if(a.Crossing.size>MAXCROSSINGS)
+				throw new IllegalArgumentException(a.Crossing.size+" crossings, more than "+MAXCROSSINGS);
+			crossing=a.Crossing;
+		}
+	}
+
+	public static class Matched extends Detected
+	{
+		void Prepare()
+		{
+			super.Prepare();
+			JAnalysis a=Analysis();
+			a.Crossing=crossing;
+			String s=a.MatchPartnerObjects();
+			if(s.startsWith("Error"))
+				throw new IllegalStateException(s);
+		}
+	}
+
+	public static class Matrix extends Matched
+	{
+		void Prepare()
+		{
+			super.Prepare();
+			if(crossing.size/2>MAXMATRIX)
+				throw new IllegalArgumentException(crossing.size/2+" underpasses, more than "+MAXMATRIX);
+		}
+	}
+
+	@Benchmark
+	public JPolymer Parse(Text s)
+	{
+		JPolymer p=new JPolymer();
+		if(!p.Parse(ByteBuffer.wrap(s.text),0))
+			throw new IllegalStateException("coordinates not parsed");
+		return p;
+	}
+
+	@Benchmark
+	public JPolymer ParseString(Text s)
+	{
+		JPolymer p=new JPolymer();
+		if(!p.Parse(s.string,0))
+			throw new IllegalStateException("coordinates not parsed");
+		return p;
+	}
+
+	// Lattice index and crossings, as in ParsePolymer
+	@Benchmark
+	public JCrossTable Detect(Input s)
+	{
+		JAnalysis a=s.Analysis();
+		a.IndexPolymer(s.polymer.size);
+		a.DetectCrossings();
+		return a.Crossing;
+	}
+
+	// The same crossings found on straight runs, as ParsePolymer does with JEngine.runs
+	@Benchmark
+	public JCrossTable Runs(Input s)
+	{
+		JAnalysis a=s.Analysis();
+		JRuns.Run(a);
+		return a.Crossing;
+	}
+
+	// Triangle elimination in 3D, as ParsePolymer does it with JEngine.simplify
+	@Benchmark
+	public JPolymer Simplify(Input s)
+	{
+		return JSimplifier.Run(s.polymer,false);
+	}
+
+	@Benchmark
+	public String Match(Detected s)
+	{
+		JAnalysis a=s.Analysis();
+		a.Crossing=s.crossing;
+		return a.MatchPartnerObjects();
+	}
+
+	@Benchmark
+	public JCrossTable Copy(Matched s)
+	{
+		return Clone(s.crossing);
+	}
+
+	@Benchmark
+	public JCrossTable Reduce(Matched s) throws Exception
+	{
+		JAnalysis a=s.Analysis();
+		a.Crossing=Clone(s.crossing);
+		a.ReduceCrossings();
+		return a.Crossing;
+	}
+
+	@Benchmark
+	public String Dowker(Matched s)
+	{
+		JAnalysis a=s.Analysis();
+		a.Crossing=s.crossing;
+		return a.GenerateDowker();
+	}
+
+	// Matrix and its determinant at t=-1
+	@Benchmark
+	public String Alexander(Matrix s)
+	{
+		JAnalysis a=s.Analysis();
+		a.Crossing=s.crossing;
+		return a.GenerateAlexander();
+	}
+
+	// Crossings and partner links of t, in new arrays
+	static JCrossTable Clone(JCrossTable t)
+	{
+		JCrossTable c=new JCrossTable(1);
+		c.type=t.type.clone();
+		c.over=t.over.clone();
+		c.under=t.under.clone();
+		c.x=t.x.clone();
+		c.y=t.y.clone();
+		c.xytype=t.xytype.clone();
+		c.underdir=t.underdir.clone();
+		c.overdir=t.overdir.clone();
+		c.partnerrow=t.partnerrow.clone();
+		c.partner=t.partner.clone();
+		c.underpassnum=t.underpassnum.clone();
+		c.generatornum=t.generatornum.clone();
+		c.crosstype=t.crosstype.clone();
+		c.rows=t.rows;
+		c.seq=t.seq.clone();
+		c.size=t.size;
+		return c;
+	}
+}
@@ -0,0 +1,99 @@
+package jknot;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.TreeMap;
+
+// Scaling curves from the CSV results of a JMH run (-rf csv): for every benchmark
+// and compactness, by length, the throughput, the time per bead, the bytes
+// allocated per operation (gc profiler) and the exponent of time against length
+// since the previous length, so 1 is linear.  JBenchDeterminant gives a curve for
+// every backend by underpasses, and its time is per underpass.  Usage: java
+// jknot.JBenchScaling results.csv
+public class JBenchScaling
+{
+	public static void main(String[] args) throws IOException
+	{
+		TreeMap<String,TreeMap<Integer,double[]>> curves=new TreeMap<String,TreeMap<Integer,double[]>>();	// ops/s and B/op by length
+		BufferedReader in=new BufferedReader(new FileReader(args[0]));
+		ArrayList<String> head=Fields(in.readLine());
+		int score=head.indexOf("Score"),length=head.indexOf("Param: length"),compactness=head.indexOf("Param: compactness");
+		int underpasses=head.indexOf("Param: underpasses"),backend=head.indexOf("Param: backend");
+		if(score<0 || (length<0 || compactness<0) && (underpasses<0 || backend<0))
+			throw new IOException(args[0]+" has no Score, length and compactness, or underpasses and backend");
+		String line;
+		while((line=in.readLine())!=null)
+		{
+			ArrayList<String> f=Fields(line);
+			String name=f.get(0);
+			int k=name.indexOf(':');	// secondary results, e.g. Match:gc.alloc.rate.norm
+			String metric=(k<0?"":name.substring(k+1));
+			if(k>=0)
+				name=name.substring(0,k);
+			if(!metric.equals("") && !metric.equals("gc.alloc.rate.norm"))
+				continue;
+			String size=Field(f,length),kind=Field(f,compactness);
+			if(size.equals(""))	// a determinant
+			{
+				size=Field(f,underpasses);
+				kind=Field(f,backend);
+			}
+			name=name.substring(name.lastIndexOf('.')+1)+" "+kind;
+			TreeMap<Integer,double[]> c=curves.get(name);
+			if(c==null)
+				curves.put(name,c=new TreeMap<Integer,double[]>());
+			int n=Integer.parseInt(size);
+			double[] v=c.get(n);
+			if(v==null)
+				c.put(n,v=new double[] {Double.NaN,Double.NaN});
+			v[metric.equals("")?0:1]=Double.parseDouble(f.get(score));
+		}
+		in.close();
+
+		System.out.println("benchmark\tlength\tops/s\tns/bead\tB/op\texponent");
+		for(String name:curves.keySet())
+		{
+			int last=0;
+			double lastops=0;
+			for(int n:curves.get(name).keySet())
+			{
+				double[] v=curves.get(name).get(n);
+				String exponent=(last>0?String.format("%.2f",Math.log(lastops/v[0])/Math.log((double)n/last)):"");
+				System.out.println(name+"\t"+n+"\t"+String.format("%.4g",v[0])+"\t"+String.format("%.4g",1e9/v[0]/n)+"\t"+String.format("%.4g",v[1])+"\t"+exponent);
+				last=n;
+				lastops=v[0];
+			}
+		}
+	}
+
+	// Field i of a CSV line, empty if there is no column i
+	static String Field(ArrayList<String> f, int i)
+	{
+		return (i<0?"":f.get(i));
+	}
+
+	// Fields of a CSV line, quotes removed
+	static ArrayList<String> Fields(String line)
+	{
+		ArrayList<String> f=new ArrayList<String>();
+		StringBuilder s=new StringBuilder();
+		boolean quoted=false;
+		for(int i=0;i<line.length();i++)
+		{
+			char c=line.charAt(i);
+			if(c=='"')
+				quoted=!quoted;
+			else if(c==',' && !quoted)
+			{
+				f.add(s.toString());
+				s.setLength(0);
+			}
+			else
+				s.append(c);
+		}
+		f.add(s.toString());
+		return f;
+	}
+}
@@ -0,0 +1,83 @@
+package jknot;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+// Dense fraction-free (Bareiss) elimination of the Alexander matrix, which the
+// engine used before it kept the matrix in sparse rows; JBenchDeterminant times
+// it against the sparse and modular backends.
+class JDense
+{
+	// Leading m x m block of x at t as a dense matrix
+	static BigInteger[][] Matrix(JAlexander x, int m, long t)
+	{
+		BigInteger[][] a=new BigInteger[m][m];
+		for(int r=0;r<m;r++)
+		{
+			Arrays.fill(a[r],BigInteger.ZERO);
+			for(int e=JAlexander.WIDTH*r;e<JAlexander.WIDTH*r+x.count[r];e++)
+			{
+				if(x.col[e]<m)
+					a[r][x.col[e]]=BigInteger.valueOf(x.c0[e]+x.c1[e]*t);
+			}
+		}
+		return a;
+	}
+
+	// Determinant of the leading n x n block of a, which is left as it is.  Rows are
+	// exchanged to bring up a nonzero pivot.
+	static BigInteger Bareiss(BigInteger[][] matrix, int n)
+	{
+		if(n==0)
+			return BigInteger.ONE;
+		BigInteger[][] a=new BigInteger[n][];
+		for(int i=0;i<n;i++)
+			a[i]=Arrays.copyOf(matrix[i],n);
+		boolean negate=false;
+		BigInteger last=BigInteger.ONE;	// pivot of the previous step
+		for(int i=0;i<n;i++)
+		{
+			int j;
+			for(j=i;j<n;j++)	// get 'pivot' row, first element is nonzero
+			{
+				if(a[j][i].signum()!=0)
+					break;
+			}
+			if(j==n)	// if no pivot row, determinant is zero
+				return BigInteger.ZERO;
+			if(j!=i)
+			{
+				BigInteger[] row=a[i];
+				a[i]=a[j];
+				a[j]=row;
+				negate=!negate;
+			}
+
+			BigInteger pivot=a[i][i];
+			boolean exact=last.equals(BigInteger.ONE);
+			for(j=i+1;j<n;j++)
+			{
+				BigInteger m=a[j][i];
+				boolean zero=(m.signum()==0);
+				for(int k=i+1;k<n;k++)
+				{
+					BigInteger e=a[j][k];
+					if(zero || a[i][k].signum()==0)
+					{
+						if(e.signum()==0)	// stays zero
+							continue;
+						e=e.multiply(pivot);
+					}
+					else
+					{
+						e=e.multiply(pivot).subtract(m.multiply(a[i][k]));
+					}
+					a[j][k]=(exact?e:e.divide(last));
+				}
+				a[j][i]=BigInteger.ZERO;
+			}
+			last=pivot;
+		}
+		return (negate?a[n-1][n-1].negate():a[n-1][n-1]);
+	}
+}
@@ -0,0 +1,96 @@
+package jknot;
+
+import java.math.BigInteger;
+
+// Alexander matrix in sparse rows, one row per underpass.  A row has at most three
+// nonzero entries (columns k, k+1 and the overpassing generator i), each a linear
+// polynomial c0+c1*t, so the same matrix can be evaluated at any t.
+class JAlexander
+{
+	static final int WIDTH=3;	// most entries in a row
+
+	int n;
+	int[] count;	// entries in each row, 0 if the underpass was never seen
+	int[] col;	// WIDTH slots per row
+	int[] c0,c1;
+
+	JAlexander(int size)
+	{
+		n=size;
+		count=new int[n];
+		col=new int[WIDTH*n];
+		c0=new int[WIDTH*n];
+		c1=new int[WIDTH*n];
+	}
+
+	// Entry a+b*t at row, column
+	void Set(int row, int column, int a, int b)
+	{
+		int e=WIDTH*row+count[row]++;
+		col[e]=column;
+		c0[e]=a;
+		c1[e]=b;
+	}
+
+	// Every row of the leading m x m block was filled in
+	boolean Complete(int m)
+	{
+		for(int r=0;r<m;r++)
+		{
+			if(count[r]==0)
+				return false;
+		}
+		return true;
+	}
+
+	// Leading m x m block at t, as (column, value) rows
+	void Evaluate(int m, long t, int[][] cols, long[][] vals)
+	{
+		for(int r=0;r<m;r++)
+		{
+			int k=0;
+			for(int e=WIDTH*r;e<WIDTH*r+count[r];e++)
+			{
+				if(col[e]<m && c0[e]+c1[e]*t!=0)
+					k++;
+			}
+			cols[r]=new int[k];
+			vals[r]=new long[k];
+			k=0;
+			for(int e=WIDTH*r;e<WIDTH*r+count[r];e++)
+			{
+				long v=c0[e]+c1[e]*t;
+				if(col[e]<m && v!=0)
+				{
+					cols[r][k]=col[e];
+					vals[r][k++]=v;
+				}
+			}
+		}
+	}
+
+	// Determinant of the leading m x m block at t
+	BigInteger Determinant(int m, long t)
+	{
+		int[][] cols=new int[m][];
+		long[][] vals=new long[m][];
+		Evaluate(m,t,cols,vals);
+		BigInteger[][] big=new BigInteger[m][];
+		for(int r=0;r<m;r++)
+		{
+			big[r]=new BigInteger[vals[r].length];
+			for(int k=0;k<vals[r].length;k++)
+				big[r][k]=BigInteger.valueOf(vals[r][k]);
+		}
+		return JDeterminant.Sparse(m,cols,big);
+	}
+
+	// Same determinant, modulo primes and joined by CRT
+	BigInteger Modular(int m, long t, boolean parallel)
+	{
+		int[][] cols=new int[m][];
+		long[][] vals=new long[m][];
+		Evaluate(m,t,cols,vals);
+		return JModular.Determinant(m,cols,vals,parallel);
+	}
+}
@@ -0,0 +1,945 @@
+package jknot;
+
+import java.util.StringTokenizer;
+import java.math.BigInteger;
+
+// State of a single run of the pipeline.  A new instance is made for every call
+// to JEngine, so concurrent runs never share Lattice or Crossing.
+class JAnalysis
+{
+	JEngine Engine;
+	JPolymer Polymer;
+	JResult Result=new JResult();
+	StringBuilder Output=new StringBuilder();	// same text the applet prints to taOutput
+
+	JLattice Lattice;	// occupied lattice sites
+	JColumns Columns;	// sites with in-plane segments, by (x,y) column
+	JCrossTable Crossing=new JCrossTable();
+	JAlexander Alexander;	// Alexander matrix, rows by underpass
+	int Dimension=-1;	// rows of the Alexander matrix, made here or found in JCache; -1 if none
+	JMonitor Monitor;	// Engine.monitor
+	int[] Moves=new int[4];	// Reidemeister I, II, III and macro moves made by ReduceCrossings
+
+	JAnalysis(JEngine e, JPolymer p)
+	{
+		Engine=e;
+		Polymer=p;
+		Monitor=e.monitor;
+	}
+
+	// Start of a stage for Monitor, 0 without one
+	long Time()
+	{
+		return (Monitor==null?0:System.nanoTime());
+	}
+
+	// End of a stage begun at start
+	void Stage(int stage, long start)
+	{
+		if(Monitor!=null)
+			Monitor.Stage(stage,start,Crossing.size/2);
+	}
+
+	// Error that stops the current stage
+	void Fail(String s)
+	{
+		if(Result.error==null)
+			Result.error=s;
+		Output.append(s);
+	}
+
+	// Stages report problems with a message starting with "Error", and carry on
+	void Check(String s)
+	{
+		if(s.startsWith("Error") && Result.error==null)
+			Result.error=s;
+		Output.append(s);
+	}
+
+	JResult Finish()
+	{
+		Result.output=Output.toString();
+		Result.crossing=Crossing;
+		Result.polymer=Polymer;
+		if(Monitor!=null)
+			Monitor.Run(this);
+		return Result;
+	}
+
+	// Fill up Lattice and Crossing;  Used to generate Dowker notation.  Assume knot fills all of lattice
+	// Path: ... size-1 -> 0 -> 1 -> 2 ...
+	void ParsePolymer() throws Exception
+	{
+		if(Engine.simplify)
+		{
+			if(!SimplifyPolymer())
+				return;
+			long t=Time();
+			JPolygonDetector.Run(this);
+			Stage(JMonitor.DETECT,t);
+			AnalyzeCrossings();
+			return;
+		}
+		long t=Time();
+		if(Engine.runs)
+		{
+			if(!JRuns.Run(this))
+				return;
+		}
+		else
+		{
+			if(!IndexPolymer(Polymer.size))
+				return;
+			DetectCrossings();
+		}
+		Stage(JMonitor.DETECT,t);
+		AnalyzeCrossings();
+	}	// ParsePolymer
+
+	// Replace Polymer by what triangle elimination leaves of it (JSimplifier);
+	// its segments are no longer lattice steps
+	boolean SimplifyPolymer()
+	{
+		long t=Time();
+		JPolymer p=JSimplifier.Run(Polymer,Engine.parallel);
+		Stage(JMonitor.SIMPLIFY,t);
+		if(p==null)
+		{
+			Fail("Error parsing polymer:\n Incorrect segment encountered\n");
+			return false;
+		}
+		Result.beads=p.size;
+		Output.append("Beads after triangle elimination: "+p.size+" of "+Polymer.size+"\n");
+		Polymer=p;
+		return true;
+	}
+
+	// Partners, reduction and invariants of the detected crossings
+	void AnalyzeCrossings() throws Exception
+	{
+		if(SimplifyCrossings() && Crossing.size>1)
+			Invariants();
+	}
+
+	// Partners and reduction of the detected crossings; false if they cannot be paired
+	boolean SimplifyCrossings() throws Exception
+	{
+		if(Crossing.size%2!=0)
+		{
+			Fail("Error parsing polymer:\n Total number of underpasses and overpasses should be even\n");
+			return false;
+		}
+
+		Result.crossings=Crossing.size/2;
+		Output.append("Number of crossings in projection: "+Result.crossings+"\n");
+
+		long t=Time();
+		Check(MatchPartnerObjects());
+		Stage(JMonitor.MATCH,t);
+
+		if(Engine.reduce)
+		{
+			t=Time();
+			ReduceCrossings();
+			Stage(JMonitor.REDUCE,t);
+			Result.reducedcrossings=Crossing.size/2;
+			Output.append("Number of crossings after reduction: "+Result.reducedcrossings+"\n");
+		}
+		return true;
+	}
+
+	// Dowker notation and Alexander matrix, or what they gave for the same crossing sequence before
+	void Invariants()
+	{
+		JCache.Key key=(Engine.cache==null?null:JCache.Of(Engine,Crossing));
+		JCache.Entry e=(key==null?null:Engine.cache.Get(key));
+		if(e!=null)
+		{
+			Check(e.dowkertext);
+			Check(e.alexandertext);
+			e.Fill(this);
+			return;
+		}
+		long t=Time();
+		String dowker=GenerateDowker();
+		Stage(JMonitor.DOWKER,t);
+		Check(dowker);
+		String alexander=GenerateAlexander();
+		Check(alexander);
+		if(key!=null)
+			Engine.cache.Put(key,new JCache.Entry(dowker,alexander,this));
+	}
+
+	// Record the segments at every node in Lattice and Columns, with room for
+	// the given number of sites
+	boolean IndexPolymer(int sites)
+	{
+		int i,x=0,y=0,z=0;
+		//Hashtable[] Cross;	// map of path segments to crossing type; 'U' (1 under 2), 'O' (1 over 2)
+		//Cross=new Hashtable[Polymer.size];	// phase out?
+		Lattice=new JLattice(sites);
+		for(i=0;i<Polymer.size;i++)
+		{
+			//Cross[i]=new Hashtable();
+			int tmp;
+			char dtmp;
+			x=Polymer.x[i];	// current node
+			y=Polymer.y[i];
+			z=Polymer.z[i];
+			int node=Lattice.Add(x,y,z);
+
+			if(i==0)
+			{
+				tmp=Polymer.size-1;
+			}
+			else
+			{
+				tmp=i-1;
+			}
+			Lattice.prevsegindex[node]=tmp;
+			dtmp=SegDir(x,y,z,Polymer.x[tmp],Polymer.y[tmp],Polymer.z[tmp]);
+			if(dtmp=='N')
+			{
+				Fail("Error parsing polymer:\n Incorrect segment encountered\n");
+				return false;
+			}
+			Lattice.prevsegdir[node]=dtmp;
+			if(i==Polymer.size-1)
+			{
+				tmp=0;
+			}
+			else
+			{
+				tmp=i+1;
+			}
+			Lattice.nextsegindex[node]=i;
+			dtmp=SegDir(x,y,z,Polymer.x[tmp],Polymer.y[tmp],Polymer.z[tmp]);
+			if(dtmp=='N')
+			{
+				Fail("Error parsing polymer:\n Incorrect segment encountered\n");
+				return false;
+			}
+			Lattice.nextsegdir[node]=dtmp;
+		}
+
+		Columns=new JColumns(Lattice);
+		return true;
+	}
+
+	void DetectCrossings()
+	{
+		if(Engine.parallel && Polymer.size>=JDetector.THRESHOLD)
+		{
+			JDetector.Run(this);
+		}
+		else
+		{
+			for(int i=0;i<Polymer.size;i++)
+				Detect(i,Crossing);
+		}
+	}
+
+	// Crossings of segment i (node i -> node i+1) with the rest of the polymer, in
+	// order along the segment.  Reads only Polymer, Lattice and Columns, so
+	// segments may be processed concurrently into separate tables.
+	void Detect(int i, JCrossTable out)
+	{
+		int x,y,z,ztmp,tmpindex,node,l,e,b;	// l: column list, e: entry in list, b: bound
+		double pside=Polymer.side;
+
+		// try different projections (xy,zx,yz)
+		x=Polymer.x[i];	// current node
+		y=Polymer.y[i];
+		z=Polymer.z[i];
+
+		char nextsegdir=Lattice.NextDir(x,y,z);
+
+		// Only horizontals and verticals get crossed in the projection
+		if(nextsegdir=='F')
+		{
+			// checking sequence important?
+			// for the smaller x endpoint of the segment check for y direction of upper z
+			l=Columns.List(x,y,'L');
+			for(e=Columns.Above(l,z);e<Columns.End(l);e++)
+			{
+				ztmp=Columns.z[e];
+				node=Columns.node[e];
+				if(Lattice.nextsegdir[node]=='L')
+				{
+					tmpindex=Lattice.nextsegindex[node];
+					//Cross[i].put("s"+tmpindex,"U");
+					//Cross[tmpindex].put("s"+i,"O");
+/*1*/					out.Add(false,tmpindex,i,x+ztmp/pside,y+z/pside,true,'L','F');	// (x-vertical,y-horizontal)
+				}
+				if(Lattice.prevsegdir[node]=='L')
+				{
+					tmpindex=Lattice.prevsegindex[node];
+					//Cross[i].put("s"+tmpindex,"U");
+					//Cross[tmpindex].put("s"+i,"O");
+/*2*/					out.Add(false,tmpindex,i,x+ztmp/pside,y+z/pside,true,'R','F');
+				}
+			}
+			// for the larger x endpoint of the segment check for y direction of lower z
+			l=Columns.List(x+1,y,'R');
+			for(e=Columns.Start(l),b=Columns.Below(l,z);e<b;e++)
+			{
+				ztmp=Columns.z[e];
+				node=Columns.node[e];
+				if(Lattice.nextsegdir[node]=='R')
+				{
+					tmpindex=Lattice.nextsegindex[node];
+					//Cross[i].put("s"+tmpindex,"O");
+					//Cross[tmpindex].put("s"+i,"U");
+/*3*/					out.Add(true,i,tmpindex,x+1+ztmp/pside,y+z/pside,false,'F','R');
+				}
+				if(Lattice.prevsegdir[node]=='R')
+				{
+					tmpindex=Lattice.prevsegindex[node];
+					//Cross[i].put("s"+tmpindex,"O");
+					//Cross[tmpindex].put("s"+i,"U");
+/*4*/					out.Add(true,i,tmpindex,x+1+ztmp/pside,y+z/pside,false,'F','L');
+				}
+			}
+		}
+		if(nextsegdir=='B')
+		{
+			l=Columns.List(x,y,'R');
+			for(e=Columns.Below(l,z)-1;e>=Columns.Start(l);e--)
+			{
+				ztmp=Columns.z[e];
+				node=Columns.node[e];
+				if(Lattice.nextsegdir[node]=='R')
+				{
+					tmpindex=Lattice.nextsegindex[node];
+					//Cross[i].put("s"+tmpindex,"O");
+					//Cross[tmpindex].put("s"+i,"U");
+/*5*/					out.Add(true,i,tmpindex,x+ztmp/pside,y+z/pside,false,'B','R');
+				}
+				if(Lattice.prevsegdir[node]=='R')
+				{
+					tmpindex=Lattice.prevsegindex[node];
+					//Cross[i].put("s"+tmpindex,"O");
+					//Cross[tmpindex].put("s"+i,"U");
+/*6*/					out.Add(true,i,tmpindex,x+ztmp/pside,y+z/pside,false,'B','L');
+				}
+			}
+			l=Columns.List(x-1,y,'L');
+			for(e=Columns.End(l)-1,b=Columns.Above(l,z);e>=b;e--)
+			{
+				ztmp=Columns.z[e];
+				node=Columns.node[e];
+				if(Lattice.nextsegdir[node]=='L')
+				{
+					tmpindex=Lattice.nextsegindex[node];
+					//Cross[i].put("s"+tmpindex,"U");
+					//Cross[tmpindex].put("s"+i,"O");
+/*7*/					out.Add(false,tmpindex,i,x-1+ztmp/pside,y+z/pside,true,'L','B');
+				}
+				if(Lattice.prevsegdir[node]=='L')
+				{
+					tmpindex=Lattice.prevsegindex[node];
+					//Cross[i].put("s"+tmpindex,"U");
+					//Cross[tmpindex].put("s"+i,"O");
+/*8*/					out.Add(false,tmpindex,i,x-1+ztmp/pside,y+z/pside,true,'R','B');
+				}
+			}
+		}
+		if(nextsegdir=='R')
+		{
+			// for the smaller y endpoint of the segment check for x direction of upper z
+			l=Columns.List(x,y,'B');
+			for(e=Columns.Above(l,z);e<Columns.End(l);e++)
+			{
+				ztmp=Columns.z[e];
+				node=Columns.node[e];
+				if(Lattice.nextsegdir[node]=='B')
+				{
+					tmpindex=Lattice.nextsegindex[node];
+					//Cross[i].put("s"+tmpindex,"U");
+					//Cross[tmpindex].put("s"+i,"O");
+/*9*/					out.Add(false,tmpindex,i,x+z/pside,y+ztmp/pside,false,'B','R');
+				}
+				if(Lattice.prevsegdir[node]=='B')
+				{
+					tmpindex=Lattice.prevsegindex[node];
+					//Cross[i].put("s"+tmpindex,"U");
+					//Cross[tmpindex].put("s"+i,"O");
+/*10*/					out.Add(false,tmpindex,i,x+z/pside,y+ztmp/pside,false,'F','R');
+				}
+			}
+			// for the larger y endpoint of the segment check for x direction of lower z
+			l=Columns.List(x,y+1,'F');
+			for(e=Columns.Start(l),b=Columns.Below(l,z);e<b;e++)
+			{
+				ztmp=Columns.z[e];
+				node=Columns.node[e];
+				if(Lattice.nextsegdir[node]=='F')
+				{
+					tmpindex=Lattice.nextsegindex[node];
+					//Cross[i].put("s"+tmpindex,"O");
+					//Cross[tmpindex].put("s"+i,"U");
+/*11*/					out.Add(true,i,tmpindex,x+z/pside,y+1+ztmp/pside,true,'R','F');
+				}
+				if(Lattice.prevsegdir[node]=='F')
+				{
+					tmpindex=Lattice.prevsegindex[node];
+					//Cross[i].put("s"+tmpindex,"O");
+					//Cross[tmpindex].put("s"+i,"U");
+/*12*/					out.Add(true,i,tmpindex,x+z/pside,y+1+ztmp/pside,true,'R','B');
+				}
+			}
+		}
+		if(nextsegdir=='L')
+		{
+			// for the larger y endpoint of the segment check for x direction of lower z
+			l=Columns.List(x,y,'F');
+			for(e=Columns.Below(l,z)-1;e>=Columns.Start(l);e--)
+			{
+				ztmp=Columns.z[e];
+				node=Columns.node[e];
+				if(Lattice.nextsegdir[node]=='F')
+				{
+					tmpindex=Lattice.nextsegindex[node];
+					//Cross[i].put("s"+tmpindex,"O");
+					//Cross[tmpindex].put("s"+i,"U");
+/*13*/					out.Add(true,i,tmpindex,x+z/pside,y+ztmp/pside,true,'L','F');
+				}
+				if(Lattice.prevsegdir[node]=='F')
+				{
+					tmpindex=Lattice.prevsegindex[node];
+					//Cross[i].put("s"+tmpindex,"O");
+					//Cross[tmpindex].put("s"+i,"U");
+/*14*/					out.Add(true,i,tmpindex,x+z/pside,y+ztmp/pside,true,'L','B');
+				}
+			}
+			// for the smaller y endpoint of the segment check for x direction of upper z
+			l=Columns.List(x,y-1,'B');
+			for(e=Columns.End(l)-1,b=Columns.Above(l,z);e>=b;e--)
+			{
+				ztmp=Columns.z[e];
+				node=Columns.node[e];
+				if(Lattice.nextsegdir[node]=='B')
+				{
+					tmpindex=Lattice.nextsegindex[node];
+					//Cross[i].put("s"+tmpindex,"U");
+					//Cross[tmpindex].put("s"+i,"O");
+/*15*/					out.Add(false,tmpindex,i,x+z/pside,y-1+ztmp/pside,false,'B','L');
+				}
+				if(Lattice.prevsegdir[node]=='B')
+				{
+					tmpindex=Lattice.prevsegindex[node];
+					//Cross[i].put("s"+tmpindex,"U");
+					//Cross[tmpindex].put("s"+i,"O");
+/*16*/					out.Add(false,tmpindex,i,x+z/pside,y-1+ztmp/pside,false,'F','L');
+				}
+			}
+		}
+	}	// Detect
+
+	// Partner of each crossing is the first other crossing with the same two
+	// segments (forms a pair, one odd, one even); found through a hash of the pairs
+	String MatchPartnerObjects()
+	{
+		JPairMap pairs=new JPairMap(Crossing);
+		for(int i=0;i<Crossing.size;i++)
+		{
+			int k=pairs.Other(Crossing,i);
+			if(k<0)
+				return "Error:\n Incomplete partner found.\n";
+			int ri=Crossing.seq[i],rk=Crossing.seq[k];
+			Crossing.partnerrow[ri]=rk;
+			// assert that the types of i and k should be opposite
+			if(Crossing.type[rk]==Crossing.type[ri])
+				return "Error:\n Type should be opposite\n";
+		}
+		return "Partner objects matched\n";
+	}
+
+	// Eliminate trivial intersections via Reidemeister moves
+	void ReduceCrossings() throws Exception
+	{
+		JReducer r=new JReducer(Crossing);
+		r.moves=Moves;
+		if(r.Pair())
+			r.Reduce();
+		else
+			ReduceUnpaired();
+	}
+
+	// The same moves done on the sequence array, where some crossing has no single
+	// partner and JReducer cannot link it
+	void ReduceUnpaired() throws Exception
+	{
+		boolean found=true,macrofound=true;
+		int i=0;
+		int[] seq=Crossing.seq;	// removals shift entries within this array, never reallocate it
+		while(macrofound)
+		{
+		macrofound=false;
+		found=true;
+		while(found)
+		{
+			found=false;
+			// Ignore trivial intersections/loops of the Reidemeister I type.  Except wraparound at endpoints?
+			i=0;
+			while(Crossing.size>i+1)
+			{
+				if(Crossing.SamePair(seq[i],seq[i+1]))	// look for consecutive crossings
+				{
+					Crossing.RemoveAt(i,2);
+					Moves[0]++;
+					i--;
+					if(i<0)
+						i++;
+				}
+				else
+				{
+					i++;
+				}
+			}
+			// Ignore trivial intersections/loops of the Reidemeister II type.
+			i=0;
+			while(Crossing.size>i+1)
+			{
+				int r1=seq[i],r2=seq[i+1];
+				if(Crossing.type[r1]==Crossing.type[r2])
+				{
+					int j=i+2;
+					while(Crossing.size>j+1)	// look for partner crossings
+					{
+						int r3=seq[j],r4=seq[j+1];
+						if( (Crossing.SamePair(r1,r3) && Crossing.SamePair(r2,r4)) ||
+							(Crossing.SamePair(r1,r4) && Crossing.SamePair(r2,r3)) )
+						{
+							Crossing.RemoveAt(j,2);
+							Crossing.RemoveAt(i,2);
+							Moves[1]++;
+							i--;
+							if(i<0)
+								i++;
+							found=true;
+							break;
+						}
+						j++;
+					}
+					if(Crossing.size<=j+1)
+						i++;
+				}
+				else
+				{
+					i++;
+				}
+			}
+			// Reduction by Reidemeister III (and Reidemeister I), e.g. a one twist link
+			i=0;
+			while(Crossing.size>i+3)
+			{
+				int r1=seq[i],r4=seq[i+3];
+				if(Crossing.SamePair(r1,r4))
+				{
+					int r2=seq[i+1],r3=seq[i+2];
+					if(Crossing.type[r1]==Crossing.type[r2] && Crossing.type[r1]!=Crossing.type[r3])
+					{
+						int j=0;
+						while(Crossing.size>j+1)	// also look for and swap the partner crossings
+						{
+							if(j+1<i || j>i+3)
+							{
+								int r2p=seq[j],r3p=seq[j+1];
+								if( (Crossing.SamePair(r2,r2p) && Crossing.SamePair(r3,r3p)) ||
+									(Crossing.SamePair(r2,r3p) && Crossing.SamePair(r3,r2p)) )
+								{
+									seq[j]=r3p;
+									seq[j+1]=r2p;
+
+									Crossing.RemoveAt(i+3,1);
+									Crossing.RemoveAt(i,1);
+									Moves[2]++;
+									found=true;
+
+									break;
+								}
+							}
+							j++;
+						}
+						if(Crossing.size<=j+1) i++;
+					}
+					else
+					{
+						i++;
+					}
+				}
+				else
+				{
+					i++;
+				}
+			}
+
+		// test 'macro' Reidemeister move
+		boolean[] condemned=null;	// partners of removed crossings, by row
+		int j,k;
+		i=0;
+		while(Crossing.size>i+5)
+		{
+			int r1=seq[i],r2=seq[i+1],r3=-1;
+			for(j=i+2;j<Crossing.size;j++)
+			{
+				r3=seq[j];
+				if(Crossing.type[r3]!=Crossing.type[r2])	// 'streak' broken
+					break;
+				if(Crossing.SamePair(r3,r1))	// back to start, 'fish' completed
+					break;
+			}
+			if(j<Crossing.size)
+			{
+				if(j-i<5)
+				{
+					i=j;
+				}
+				else
+				{
+					if(Crossing.SamePair(r3,r1))
+					{
+						if(condemned==null)
+							condemned=new boolean[Crossing.rows];
+						for(k=j-1;k>i;k--)	// remove crossings
+						{
+							int p=Crossing.partnerrow[seq[k]];
+							if(p>=0)
+								condemned[p]=true;
+						}
+						Crossing.RemoveAt(i+1,j-1-i);
+						Crossing.RemoveRows(condemned);
+						Moves[3]++;
+						macrofound=true;
+					}
+					else
+					{
+						i++;
+					}
+				}
+			}
+			else
+			{
+				i++;
+			}
+		}
+
+		} //while(found)
+		} //while(macrofound)
+
+	}
+
+	// Idea based on The Knot Book, by Adams
+	String GenerateDowker()
+	{
+		int istart,i;
+		for(istart=0;istart<Crossing.size;istart++)
+		{
+			if(Crossing.type[Crossing.seq[istart]]==false)
+				break;
+		}
+		if(istart==Crossing.size)
+			return "Error generating Dowker notation:\n No undercrossing found.\n";
+		int[] index=Crossing.Positions();
+		for(i=0;i<Crossing.size;i++)
+		{
+			int ri=Crossing.seq[i];
+			int rk=Crossing.partnerrow[ri];
+			Crossing.partner[ri]=(rk<0?-1:index[rk]);
+		}
+
+		int[] partner2=new int[Crossing.size];	// have to shift first crossing to first undercrossing
+		boolean[] isover=new boolean[Crossing.size];
+		for(i=0;i<Crossing.size;i++)
+		{
+			int ri=Crossing.seq[(istart+i)%Crossing.size];
+			int p=Crossing.partner[ri];
+			if(p>=istart)
+			{
+				p-=istart;
+			}
+			else
+			{
+				p-=(istart-Crossing.size);
+			}
+			partner2[i]=p;
+			isover[i]=Crossing.type[ri];
+		}
+		StringBuilder tmp=new StringBuilder();
+
+		int[] code=new int[(Crossing.size+1)/2];
+		for(i=0;i<Crossing.size;i+=2)	// display even numbered crossings
+		{
+			int p=partner2[i]+1;	// remember partner,partner2 start at 0
+			if(isover[i])
+				p=-p;
+			code[i/2]=p;
+			tmp.append(" ").append(p).append(",");
+		}
+		Result.dowker=code;
+		Result.canonicaldowker=JDowker.Canonical(code);
+
+		return "Begin Dowker Representation:\n"+tmp+"\nEnd Dowker Representation\n";
+	}	// GenerateDowker
+
+
+	// Idea based on Vologodskii, et al
+	String GenerateAlexander()
+	{
+		long t=Time();
+		int istart,i,j,k;
+		for(istart=0;istart<Crossing.size;istart++)
+		{
+			if(Crossing.type[Crossing.seq[istart]]==false)
+				break;
+		}
+		if(istart==Crossing.size)
+			return "Error generating Alexander matrix:\n No undercrossing found.\n";
+
+		// Determine underpass number and generator number (arc number)
+		int undernum=0;
+		int gennum=1;
+		int numunderpasses=Crossing.size/2;
+		for(i=0;i<Crossing.size;i++)
+		{
+			int ri=Crossing.seq[(istart+i)%Crossing.size];
+			if(Crossing.type[ri]==false)
+			{
+				Crossing.underpassnum[ri]=++undernum;
+				if(gennum>=numunderpasses)	// number of arcs equals number of crossings (of one type)
+				{
+					gennum=1;
+				}
+				else
+				{
+					gennum++;
+				}
+			}
+			else	// overpass part of generator or arc
+			{
+				Crossing.generatornum[ri]=gennum;
+			}
+		}
+
+		// Write elements of the Alexander matrix into a string
+		int writhe=0;
+		//int alexmatrix[][]=new int[numunderpasses][numunderpasses];
+		JAlexander alexmatrix=new JAlexander(numunderpasses);
+		int tvar=Engine.tvar;
+		StringBuilder amatrix=new StringBuilder();
+		for(int l=0;l<Crossing.size;l++)	// twice the number of intersections
+		{
+			int rk=Crossing.seq[(istart+l)%Crossing.size];
+			// generate a row of the matrix corresponding to an underpass
+			if(Crossing.type[rk]==false)	// only crosstypes for underpasses filled up?
+			{
+				// Get overpassing generator number of the kth underpass
+				int ri=Crossing.partnerrow[rk];
+				//if(Crossing.type[ri]!=true) or (Crossing.type[rk]==Crossing.type[ri]) then error
+				i=Crossing.generatornum[ri];
+				k=Crossing.underpassnum[rk];
+				if(i==k || i==k+1)	// Rule 1
+				{
+					for(int m=1;m<=numunderpasses;m++)
+					{
+						if(m==k) { amatrix.append("-1,"); alexmatrix.Set(k-1,m-1,-1,0); }
+						else if(m==k+1) { amatrix.append("1,"); alexmatrix.Set(k-1,m-1,1,0); }
+						else { amatrix.append("0,"); }
+					}
+					amatrix.append("\n");
+
+					// help determine writhe
+					// Type II underpass
+					if((Crossing.overdir[rk]=='F' && Crossing.underdir[rk]=='L')
+						|| (Crossing.overdir[rk]=='R' && Crossing.underdir[rk]=='F')
+						|| (Crossing.overdir[rk]=='L' && Crossing.underdir[rk]=='B')
+						|| (Crossing.overdir[rk]=='B' && Crossing.underdir[rk]=='R'))
+					{
+						Crossing.crosstype[rk]=+1;
+						writhe+=Crossing.crosstype[rk];
+					}
+					// Type I underpass
+					if((Crossing.overdir[rk]=='L' && Crossing.underdir[rk]=='F')
+						|| (Crossing.overdir[rk]=='F' && Crossing.underdir[rk]=='R')
+						|| (Crossing.overdir[rk]=='B' && Crossing.underdir[rk]=='L')
+						|| (Crossing.overdir[rk]=='R' && Crossing.underdir[rk]=='B'))
+					{
+						Crossing.crosstype[rk]=-1;
+						writhe+=Crossing.crosstype[rk];
+					}
+				}
+				else	// Rule 2
+				{
+					// Type II underpass.  Convention switched 02/11/02, right-handed to left-handed, corresponding to reversing x-direction
+					if((Crossing.overdir[rk]=='F' && Crossing.underdir[rk]=='L')
+						|| (Crossing.overdir[rk]=='R' && Crossing.underdir[rk]=='F')
+						|| (Crossing.overdir[rk]=='L' && Crossing.underdir[rk]=='B')
+						|| (Crossing.overdir[rk]=='B' && Crossing.underdir[rk]=='R'))
+					{
+						Crossing.crosstype[rk]=+1;
+						writhe+=Crossing.crosstype[rk];
+						for(int m=1;m<=numunderpasses;m++)
+						{
+							if(m==k) { amatrix.append("-t,"); alexmatrix.Set(k-1,m-1,0,-1); }
+							else if(m==k+1)  { amatrix.append("1,"); alexmatrix.Set(k-1,m-1,1,0); }
+							else if(m==i) { amatrix.append("t-1,"); alexmatrix.Set(k-1,m-1,-1,1); }
+							else { amatrix.append("0,"); }
+						}
+						amatrix.append("\n");
+					}
+					// Type I underpass
+					if((Crossing.overdir[rk]=='L' && Crossing.underdir[rk]=='F')
+						|| (Crossing.overdir[rk]=='F' && Crossing.underdir[rk]=='R')
+						|| (Crossing.overdir[rk]=='B' && Crossing.underdir[rk]=='L')
+						|| (Crossing.overdir[rk]=='R' && Crossing.underdir[rk]=='B'))
+					{
+						Crossing.crosstype[rk]=-1;
+						writhe+=Crossing.crosstype[rk];
+						for(int m=1;m<=numunderpasses;m++)
+						{
+							if(m==k) { amatrix.append("1,"); alexmatrix.Set(k-1,m-1,1,0); }
+							else if(m==k+1) { amatrix.append("-t,"); alexmatrix.Set(k-1,m-1,0,-1); }
+							else if(m==i) { amatrix.append("t-1,"); alexmatrix.Set(k-1,m-1,-1,1); }
+							else { amatrix.append("0,"); }
+						}
+						amatrix.append("\n");
+					}
+				}
+			}
+		}
+
+		Result.alexander=amatrix.toString();
+		Result.writhe=writhe;
+		Alexander=alexmatrix;
+		Dimension=alexmatrix.n;
+		String tmp="Begin Alexander Matrix\n"+amatrix+"End Alexander Matrix\nWrithing Number: "+writhe+"\n";
+
+		Stage(JMonitor.ALEXANDER,t);
+
+		int minor=numunderpasses;
+		if(minor>1)
+			minor--;	// n-1 minor
+		if((Engine.determinant || Engine.tvalues!=null || Engine.polynomial) && !alexmatrix.Complete(minor))
+			return "Error generating Alexander matrix:\n Underpass missing from the matrix.\n";
+
+		// Determinant work is CPU bound; Engine.limit bounds how many runs do it at once
+		boolean limited=(Engine.limit!=null && (Engine.determinant || Engine.tvalues!=null || Engine.polynomial));
+		if(limited)
+			Engine.limit.acquireUninterruptibly();
+		t=Time();
+		try
+		{
+			// Calculate Determinant of n-1 minor of the Alexander Matrix.  This is almost the Alexander Polynomial evaluated at t.
+			if(Engine.determinant)
+			{
+				numunderpasses=minor;
+				BigInteger det=(Engine.modular?alexmatrix.Modular(numunderpasses,tvar,Engine.parallel):alexmatrix.Determinant(numunderpasses,tvar));
+				if(det.signum()==0)
+					tmp+="Determinant of n-1 minor is zero\n";
+				Result.t=tvar;
+				Result.determinant=det;
+				tmp+="Determinant of n-1 minor (t="+tvar+"): "+det.toString()+"\n";
+			}
+
+			// Same determinant at a list of t, on the one matrix
+			if(Engine.tvalues!=null)
+			{
+				Result.tvalues=Engine.tvalues.clone();
+				Result.determinants=JBatch.Run(alexmatrix,minor,Result.tvalues,Engine.modular,Engine.parallel);
+				for(i=0;i<Result.tvalues.length;i++)
+					tmp+="Determinant of n-1 minor (t="+Result.tvalues[i]+"): "+Result.determinants[i]+"\n";
+			}
+
+			// The polynomial itself, up to a factor +-t^k, fixed by symmetry
+			if(Engine.polynomial)
+			{
+				int[] low=new int[1];
+				Result.polynomial=JPolynomial.Normalize(JPolynomial.Coefficients(alexmatrix,minor),low);
+				Result.lowestpower=low[0];
+				tmp+="Alexander polynomial: "+JPolynomial.Format(Result.polynomial,low[0])+"\n";
+			}
+		}
+		finally
+		{
+			if(limited)
+				Engine.limit.release();
+		}
+		if(Engine.determinant || Engine.tvalues!=null || Engine.polynomial)
+			Stage(JMonitor.DETERMINANT,t);
+
+		return tmp;
+	}	// GenerateAlexander
+
+	// Assume p1 and p2 differ in only one coordinate, by 1
+	char SegDir(int x1, int y1, int z1, int x2, int y2, int z2)
+	{
+		if(x1-x2==1) return 'B';	//relative to p1
+		if(x2-x1==1) return 'F';
+		if(y1-y2==1) return 'L';
+		if(y2-y1==1) return 'R';
+		if(z1-z2==1) return 'D';
+		if(z2-z1==1) return 'U';
+
+		return 'N';	//error?
+	}
+
+	// Emulate ParsePolymer.  Gauss code for knot as input.
+	void ParseGauss(String code)	//This feature came out from C++ code first
+	{
+		long t=Time();
+		StringTokenizer st=new StringTokenizer(code,",\r\n");
+		int i=0;
+		while(st.hasMoreTokens())
+		{
+			i++;
+			String sc=st.nextToken();
+			sc=sc.trim();
+			if(sc.length()<3)
+			{
+				Fail("Error parsing Gauss code:\n Incorrect input at element "+i+"\n");
+				return;
+			}
+			boolean ab;
+			if(sc.charAt(0)=='a')
+				ab=true;
+			else if(sc.charAt(0)=='b')
+				ab=false;
+			else
+			{
+				Fail("Error parsing Gauss code:\n Incorrect a-b input at element "+i+"\n");
+				return;
+			}
+			int num;
+			try
+			{
+				num=Integer.parseInt(sc.substring(2));
+			}
+			catch(Exception ex)
+			{
+				Fail("Error parsing Gauss code:\n Incorrect input label at element "+i+"\n");
+				return;
+			}
+			char odir='L',udir='F';
+			if(sc.charAt(1)=='-')
+				num=-num;
+			if(num>0)
+			{
+				odir='F';
+				udir='L';
+			}
+			Crossing.Add(ab,num,num,-1,-1,true,odir,udir);
+		}
+
+		Stage(JMonitor.PARSE,t);
+
+		Result.crossings=Crossing.size/2;
+		if(Crossing.size>1)
+		{
+			t=Time();
+			Check(MatchPartnerObjects());
+			Stage(JMonitor.MATCH,t);
+			Invariants();
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package jknot;
+
+import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Determinants of one Alexander matrix at several values of t.  The matrix and
+// its numbering are built once; each value only evaluates the sparse rows and
+// eliminates, so the values may run as separate fork-join tasks.
+class JBatch extends RecursiveAction
+{
+	JAlexander Matrix;
+	int m;	// size of the minor
+	int[] t;
+	boolean modular;
+	BigInteger[] out;
+	int from,to;	// values handled by this task
+
+	JBatch(JAlexander a, int size, int[] tv, boolean mod, BigInteger[] o, int f, int e)
+	{
+		Matrix=a;
+		m=size;
+		t=tv;
+		modular=mod;
+		out=o;
+		from=f;
+		to=e;
+	}
+
+	static BigInteger[] Run(JAlexander a, int m, int[] t, boolean modular, boolean parallel)
+	{
+		BigInteger[] out=new BigInteger[t.length];
+		JBatch task=new JBatch(a,m,t,modular,out,0,t.length);
+		if(parallel && t.length>1)
+			ForkJoinPool.commonPool().invoke(task);
+		else
+			task.compute();
+		return out;
+	}
+
+	protected void compute()
+	{
+		if(to-from>1)
+		{
+			int mid=(from+to)>>>1;
+			invokeAll(new JBatch(Matrix,m,t,modular,out,from,mid),new JBatch(Matrix,m,t,modular,out,mid,to));
+			return;
+		}
+		for(int i=from;i<to;i++)
+			out[i]=(modular?Matrix.Modular(m,t[i],false):Matrix.Determinant(m,t[i]));
+	}
+}
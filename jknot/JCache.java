@@ -0,0 +1,266 @@
+package jknot;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Dowker and Alexander results by (reduced) crossing sequence, so a diagram seen
+// before skips building and eliminating its matrix.  The key is everything those
+// stages read: for each position of the sequence, the position of its partner,
+// over/under and the two segment directions; plus the engine settings that
+// change the output.  It is exact rather than up to rotation or mirror image,
+// since the determinant at t and the writhe depend on those.  The cache is cut
+// into segments by hash, each an LRU list under its own lock, and bounded by the
+// estimated bytes it holds rather than by the number of entries.
+public class JCache
+{
+	static final int SEGMENTS=16;
+
+	Segment[] segments=new Segment[SEGMENTS];
+	AtomicLong hits=new AtomicLong(),misses=new AtomicLong(),evictions=new AtomicLong();
+
+	// At most about the given number of bytes of keys and results
+	public JCache(long bytes)
+	{
+		for(int i=0;i<SEGMENTS;i++)
+			segments[i]=new Segment(Math.max(bytes/SEGMENTS,1));
+	}
+
+	public long Hits()
+	{
+		return hits.get();
+	}
+
+	public long Misses()
+	{
+		return misses.get();
+	}
+
+	public long Evictions()
+	{
+		return evictions.get();
+	}
+
+	// Entries held now
+	public int Count()
+	{
+		int n=0;
+		for(int i=0;i<SEGMENTS;i++)
+		{
+			synchronized(segments[i])
+			{
+				n+=segments[i].map.size();
+			}
+		}
+		return n;
+	}
+
+	// Estimated bytes held now
+	public long Weight()
+	{
+		long w=0;
+		for(int i=0;i<SEGMENTS;i++)
+		{
+			synchronized(segments[i])
+			{
+				w+=segments[i].weight;
+			}
+		}
+		return w;
+	}
+
+	Segment For(Key k)
+	{
+		return segments[(k.hash^(k.hash>>>16))&(SEGMENTS-1)];
+	}
+
+	Entry Get(Key k)
+	{
+		Entry e;
+		Segment s=For(k);
+		synchronized(s)
+		{
+			e=s.map.get(k);
+		}
+		(e!=null?hits:misses).incrementAndGet();
+		return e;
+	}
+
+	void Put(Key k, Entry e)
+	{
+		Segment s=For(k);
+		long w=4L*k.data.length+e.Weight();
+		synchronized(s)
+		{
+			Entry old=s.map.put(k,e);
+			if(old!=null)
+				s.weight-=old.weight;
+			e.weight=w;
+			s.weight+=w;
+			Iterator<Map.Entry<Key,Entry>> it=s.map.entrySet().iterator();
+			while(s.weight>s.capacity && it.hasNext())	// least recently used first
+			{
+				Entry x=it.next().getValue();
+				it.remove();
+				s.weight-=x.weight;
+				evictions.incrementAndGet();
+			}
+		}
+	}
+
+	static class Segment
+	{
+		LinkedHashMap<Key,Entry> map=new LinkedHashMap<Key,Entry>(16,0.75f,true);	// in access order
+		long capacity,weight;
+
+		Segment(long c)
+		{
+			capacity=c;
+		}
+	}
+
+	// Crossing sequence and settings; null if some partner is not in the sequence
+	static Key Of(JEngine e, JCrossTable c)
+	{
+		int[] index=c.Positions();
+		int n=c.size,t=(e.tvalues==null?0:e.tvalues.length);
+		int[] d=new int[2*n+4+t];
+		for(int i=0;i<n;i++)
+		{
+			int r=c.seq[i];
+			int p=(c.partnerrow[r]<0?-1:index[c.partnerrow[r]]);
+			if(p<0)
+				return null;
+			d[2*i]=p;
+			d[2*i+1]=(c.type[r]?1:0)|(c.overdir[r]<<1)|(c.underdir[r]<<17);
+		}
+		d[2*n]=(e.determinant?1:0)|(e.polynomial?2:0)|(e.tvalues!=null?4:0);
+		d[2*n+1]=e.tvar;
+		d[2*n+2]=n;
+		d[2*n+3]=t;
+		for(int i=0;i<t;i++)
+			d[2*n+4+i]=e.tvalues[i];
+		return new Key(d);
+	}
+
+	static class Key
+	{
+		int[] data;
+		int hash;
+
+		Key(int[] d)
+		{
+			data=d;
+			hash=Arrays.hashCode(d);
+		}
+
+		public int hashCode()
+		{
+			return hash;
+		}
+
+		public boolean equals(Object o)
+		{
+			return (o instanceof Key) && ((Key)o).hash==hash && Arrays.equals(((Key)o).data,data);
+		}
+	}
+
+	// What GenerateDowker and GenerateAlexander report for one key, and what
+	// they leave in the crossing table, by position in the sequence
+	static class Entry
+	{
+		String dowkertext,alexandertext;	// their returned text
+		int[] dowker,canonicaldowker;
+		String alexander;
+		int writhe,t,lowestpower;
+		BigInteger determinant;
+		int[] tvalues;
+		BigInteger[] determinants,polynomial;
+		int[] partner,underpassnum,generatornum;
+		byte[] crosstype;
+		int dimension;	// rows of the Alexander matrix, -1 if none was made
+		long weight;
+
+		Entry(String d, String a, JAnalysis an)
+		{
+			JResult r=an.Result;
+			JCrossTable c=an.Crossing;
+			dowkertext=d;
+			alexandertext=a;
+			dowker=r.dowker;
+			canonicaldowker=r.canonicaldowker;
+			alexander=r.alexander;
+			writhe=r.writhe;
+			t=r.t;
+			determinant=r.determinant;
+			tvalues=r.tvalues;
+			determinants=r.determinants;
+			polynomial=r.polynomial;
+			lowestpower=r.lowestpower;
+			int n=c.size;
+			partner=new int[n];
+			underpassnum=new int[n];
+			generatornum=new int[n];
+			crosstype=new byte[n];
+			for(int i=0;i<n;i++)
+			{
+				int k=c.seq[i];
+				partner[i]=c.partner[k];
+				underpassnum[i]=c.underpassnum[k];
+				generatornum[i]=c.generatornum[k];
+				crosstype[i]=c.crosstype[k];
+			}
+			dimension=an.Dimension;
+		}
+
+		// Copy into the result and crossing table of a run with the same key
+		void Fill(JAnalysis an)
+		{
+			JResult r=an.Result;
+			JCrossTable c=an.Crossing;
+			for(int i=0;i<c.size;i++)
+			{
+				int k=c.seq[i];
+				c.partner[k]=partner[i];
+				c.underpassnum[k]=underpassnum[i];
+				c.generatornum[k]=generatornum[i];
+				c.crosstype[k]=crosstype[i];
+			}
+			an.Dimension=dimension;
+			r.dowker=(dowker==null?null:dowker.clone());
+			r.canonicaldowker=(canonicaldowker==null?null:canonicaldowker.clone());
+			r.alexander=alexander;
+			r.writhe=writhe;
+			r.t=t;
+			r.determinant=determinant;
+			r.tvalues=(tvalues==null?null:tvalues.clone());
+			r.determinants=(determinants==null?null:determinants.clone());
+			r.polynomial=(polynomial==null?null:polynomial.clone());
+			r.lowestpower=lowestpower;
+		}
+
+		// Estimated bytes
+		long Weight()
+		{
+			long w=64+2L*(dowkertext.length()+alexandertext.length()+(alexander==null?0:alexander.length()))+13L*partner.length;
+			if(dowker!=null)
+				w+=8L*dowker.length;
+			if(determinant!=null)
+				w+=determinant.bitLength()/8+32;
+			if(determinants!=null)
+			{
+				for(int i=0;i<determinants.length;i++)
+					w+=determinants[i].bitLength()/8+36;
+			}
+			if(polynomial!=null)
+			{
+				for(int i=0;i<polynomial.length;i++)
+					w+=polynomial[i].bitLength()/8+32;
+			}
+			return w;
+		}
+	}
+}
@@ -0,0 +1,255 @@
+package jknot;
+
+import java.util.Arrays;
+
+// Sites of a JLattice grouped by projection column (x,y) and in-plane segment
+// direction.  List (x,y,d) holds, in increasing z, every site at (x,y) whose
+// previous or next segment points in direction d ('F','B','L','R').  The crossing
+// scans in ParsePolymer only touch the sites above or below a segment that can
+// actually cross it, instead of every height of the lattice.  Lists are packed
+// one after another when built; Insert moves a full list to the end of the
+// entry arrays with room to spare, so sites can follow moves of the polymer.
+class JColumns
+{
+	static final String DIRS="FBLR";
+
+	long[] keys;	// packed (x,y,direction) of each list, open addressing
+	int[] list;	// list number at the same slot as its key
+	int mask;
+
+	int[] start,end;	// entries of list l are start[l]..end[l]-1
+	int[] limit;	// room of list l ends here
+	int lists;
+	int top;	// entries in use, with the room of every list
+	public int[] z;	// height of each entry
+	public int[] node;	// lattice slot of each entry
+
+	JColumns(JLattice lattice)
+	{
+		int capacity=8;
+		while(capacity<8*lattice.count)	// at most two lists per site, load factor 1/4
+			capacity<<=1;
+		keys=new long[capacity];
+		Arrays.fill(keys,JLattice.EMPTY);
+		list=new int[capacity];
+		mask=capacity-1;
+
+		// number the lists and count their entries
+		int[] count=new int[2*lattice.count+1];
+		int lists=0,entries=0;
+		for(int i=0;i<lattice.keys.length;i++)
+		{
+			long k=lattice.keys[i];
+			if(k<0)	// EMPTY or GONE
+				continue;
+			for(int d=0;d<4;d++)
+			{
+				if(!Uses(lattice,i,DIRS.charAt(d)))
+					continue;
+				int s=Slot(k,d);
+				if(keys[s]==JLattice.EMPTY)
+				{
+					keys[s]=ListKey(k,d);
+					list[s]=lists++;
+				}
+				count[list[s]]++;
+				entries++;
+			}
+		}
+		this.lists=lists;
+		start=new int[lists+1];
+		for(int l=0;l<lists;l++)
+			start[l+1]=start[l]+count[l];
+		end=Arrays.copyOfRange(start,1,lists+1);
+		limit=end.clone();
+		top=entries;
+
+		// fill, as (height,slot) pairs so that a plain sort orders each list by z
+		long[] pairs=new long[entries];
+		int[] fill=Arrays.copyOf(start,lists);
+		for(int i=0;i<lattice.keys.length;i++)
+		{
+			long k=lattice.keys[i];
+			if(k<0)
+				continue;
+			for(int d=0;d<4;d++)
+			{
+				if(!Uses(lattice,i,DIRS.charAt(d)))
+					continue;
+				pairs[fill[list[Slot(k,d)]]++]=(JLattice.Z(k)+(long)JLattice.LIMIT)<<32 | i;
+			}
+		}
+		z=new int[entries];
+		node=new int[entries];
+		for(int l=0;l<lists;l++)
+		{
+			Arrays.sort(pairs,start[l],start[l+1]);
+			for(int e=start[l];e<start[l+1];e++)
+			{
+				z[e]=(int)(pairs[e]>>>32)-JLattice.LIMIT;
+				node[e]=(int)pairs[e];
+			}
+		}
+	}
+
+	static boolean Uses(JLattice lattice, int i, char d)
+	{
+		return lattice.nextsegdir[i]==d || lattice.prevsegdir[i]==d;
+	}
+
+	// the z field of a site key is replaced by the direction
+	static long ListKey(long sitekey, int d)
+	{
+		return (sitekey&~((1L<<JLattice.BITS)-1)) | d;
+	}
+
+	// slot holding list (site column, d), or the empty slot where it belongs
+	int Slot(long sitekey, int d)
+	{
+		long k=ListKey(sitekey,d);
+		int s=JLattice.Hash(k)&mask;
+		while(keys[s]!=JLattice.EMPTY && keys[s]!=k)
+			s=(s+1)&mask;
+		return s;
+	}
+
+	// List for column (x,y) and direction d, -1 if there are no such sites
+	int List(int x, int y, char d)
+	{
+		int s=Slot(JLattice.Pack(x,y,0),DIRS.indexOf(d));
+		return keys[s]==JLattice.EMPTY?-1:list[s];
+	}
+
+	int Start(int l)
+	{
+		return l<0?0:start[l];
+	}
+
+	int End(int l)
+	{
+		return l<0?0:end[l];
+	}
+
+	// first entry of list l with height >= h
+	int Below(int l, int h)
+	{
+		int lo=Start(l),hi=End(l);
+		while(lo<hi)
+		{
+			int m=(lo+hi)>>>1;
+			if(z[m]<h)
+				lo=m+1;
+			else
+				hi=m;
+		}
+		return lo;
+	}
+
+	// first entry of list l with height > h
+	int Above(int l, int h)
+	{
+		return Below(l,h+1);
+	}
+
+	// Add lattice slot i to the lists of its in-plane directions
+	void Insert(JLattice lattice, int i)
+	{
+		long k=lattice.keys[i];
+		int h=JLattice.Z(k);
+		for(int d=0;d<4;d++)
+		{
+			if(!Uses(lattice,i,DIRS.charAt(d)))
+				continue;
+			int s=Slot(k,d);
+			if(keys[s]==JLattice.EMPTY)	// new list, without room yet
+			{
+				if(2*(lists+1)>keys.length)
+				{
+					Rehash();
+					s=Slot(k,d);
+				}
+				if(lists==end.length)
+				{
+					int n=Math.max(4,2*lists);
+					start=Arrays.copyOf(start,n+1);
+					end=Arrays.copyOf(end,n);
+					limit=Arrays.copyOf(limit,n);
+				}
+				keys[s]=ListKey(k,d);
+				list[s]=lists;
+				start[lists]=end[lists]=limit[lists]=top;
+				lists++;
+			}
+			int l=list[s];
+			if(end[l]==limit[l])
+				Move(l);
+			int e=Below(l,h);
+			System.arraycopy(z,e,z,e+1,end[l]-e);
+			System.arraycopy(node,e,node,e+1,end[l]-e);
+			z[e]=h;
+			node[e]=i;
+			end[l]++;
+		}
+	}
+
+	// Take lattice slot i out of its lists; call before its directions change
+	void Delete(JLattice lattice, int i)
+	{
+		long k=lattice.keys[i];
+		int h=JLattice.Z(k);
+		for(int d=0;d<4;d++)
+		{
+			if(!Uses(lattice,i,DIRS.charAt(d)))
+				continue;
+			int s=Slot(k,d);
+			if(keys[s]==JLattice.EMPTY)
+				continue;
+			int l=list[s];
+			int e=Below(l,h);
+			if(e==end[l] || node[e]!=i)
+				continue;
+			System.arraycopy(z,e+1,z,e,end[l]-e-1);
+			System.arraycopy(node,e+1,node,e,end[l]-e-1);
+			end[l]--;
+		}
+	}
+
+	// Copy list l to the end of the entries, with room for as many again
+	void Move(int l)
+	{
+		int n=end[l]-start[l],room=Math.max(4,2*n);
+		if(top+room>z.length)
+		{
+			int capacity=Math.max(2*z.length,top+room);
+			z=Arrays.copyOf(z,capacity);
+			node=Arrays.copyOf(node,capacity);
+		}
+		System.arraycopy(z,start[l],z,top,n);
+		System.arraycopy(node,start[l],node,top,n);
+		start[l]=top;
+		end[l]=top+n;
+		limit[l]=top+room;
+		top+=room;
+	}
+
+	// Twice the slots for list keys; list numbers stay
+	void Rehash()
+	{
+		long[] k=keys;
+		int[] li=list;
+		keys=new long[2*k.length];
+		Arrays.fill(keys,JLattice.EMPTY);
+		list=new int[2*k.length];
+		mask=keys.length-1;
+		for(int j=0;j<k.length;j++)
+		{
+			if(k[j]==JLattice.EMPTY)
+				continue;
+			int s=JLattice.Hash(k[j])&mask;
+			while(keys[s]!=JLattice.EMPTY)
+				s=(s+1)&mask;
+			keys[s]=k[j];
+			list[s]=li[j];
+		}
+	}
+}
@@ -0,0 +1,171 @@
+package jknot;
+
+import java.util.Arrays;
+
+// All crossings of a projection, one row per crossing, held column-wise in
+// primitive arrays.  Rows are only ever appended; the crossing sequence along
+// the polymer is kept separately in seq as row numbers, so removing or swapping
+// crossings never moves row data and partner links stay valid.
+public class JCrossTable
+{
+	public boolean[] type;	// over (true) or under (false)
+	public int[] over,under;	// segments that make up the crossing
+	public double[] x,y;	// coordinates of intersection in plane projection
+	public boolean[] xytype;	// true if the vertical segment is over the horizontal segment
+	public char[] underdir;	// Used to determine underpass type. see A.V. Vologodskii, et al, Sov. Phys.-JETP, Vol. 39, 1974, p. 1059
+	public char[] overdir;
+	public int[] partnerrow;	// row of the crossing that intersects at the same point, -1 if not matched
+	public int[] partner;	// position of the partner in seq, filled by GenerateDowker
+	public int[] underpassnum;
+	public int[] generatornum;
+	public byte[] crosstype;	// Used to calculate writhing number. see Deguchi and Tsurusaki, Phys. Letters A 174, 1993, 29-37
+	public int rows;
+
+	public int[] seq;	// crossing sequence, as row numbers
+	public int size;	// length of seq
+
+	public JCrossTable()
+	{
+		this(16);
+	}
+
+	public JCrossTable(int capacity)
+	{
+		Allocate(Math.max(capacity,1));
+	}
+
+	void Allocate(int capacity)
+	{
+		type=new boolean[capacity];
+		over=new int[capacity];
+		under=new int[capacity];
+		x=new double[capacity];
+		y=new double[capacity];
+		xytype=new boolean[capacity];
+		underdir=new char[capacity];
+		overdir=new char[capacity];
+		partnerrow=new int[capacity];
+		partner=new int[capacity];
+		underpassnum=new int[capacity];
+		generatornum=new int[capacity];
+		crosstype=new byte[capacity];
+		seq=new int[capacity];
+	}
+
+	// Make room for n more rows
+	void Reserve(int n)
+	{
+		if(rows+n<=type.length)
+			return;
+		int capacity=Math.max(rows+n,2*type.length);
+		type=Arrays.copyOf(type,capacity);
+		over=Arrays.copyOf(over,capacity);
+		under=Arrays.copyOf(under,capacity);
+		x=Arrays.copyOf(x,capacity);
+		y=Arrays.copyOf(y,capacity);
+		xytype=Arrays.copyOf(xytype,capacity);
+		underdir=Arrays.copyOf(underdir,capacity);
+		overdir=Arrays.copyOf(overdir,capacity);
+		partnerrow=Arrays.copyOf(partnerrow,capacity);
+		partner=Arrays.copyOf(partner,capacity);
+		underpassnum=Arrays.copyOf(underpassnum,capacity);
+		generatornum=Arrays.copyOf(generatornum,capacity);
+		crosstype=Arrays.copyOf(crosstype,capacity);
+		seq=Arrays.copyOf(seq,capacity);
+	}
+
+	// Drop every row, keeping the arrays
+	void Clear()
+	{
+		rows=0;
+		size=0;
+	}
+
+	// Append a crossing to the end of the sequence
+	int Add(boolean b, int o, int u, double xo, double yo, boolean b2, char odir, char udir)
+	{
+		Reserve(1);
+		int r=rows++;
+		type[r]=b;
+		over[r]=o;
+		under[r]=u;
+
+		x[r]=xo;
+		y[r]=yo;
+		xytype[r]=b2;
+
+		underdir[r]=udir;
+		overdir[r]=odir;
+
+		partnerrow[r]=-1;
+		partner[r]=-1;
+		underpassnum[r]=0;
+		generatornum[r]=0;
+
+		crosstype[r]=1;
+
+		seq[size++]=r;
+		return r;
+	}
+
+	// Append all crossings of t, in its sequence order.  Rows of t must not be linked yet.
+	void Append(JCrossTable t)
+	{
+		Reserve(t.size);
+		for(int i=0;i<t.size;i++)
+		{
+			int s=t.seq[i],r=rows++;
+			type[r]=t.type[s];
+			over[r]=t.over[s];
+			under[r]=t.under[s];
+			x[r]=t.x[s];
+			y[r]=t.y[s];
+			xytype[r]=t.xytype[s];
+			underdir[r]=t.underdir[s];
+			overdir[r]=t.overdir[s];
+			partnerrow[r]=-1;
+			partner[r]=t.partner[s];
+			underpassnum[r]=t.underpassnum[s];
+			generatornum[r]=t.generatornum[s];
+			crosstype[r]=t.crosstype[s];
+			seq[size++]=r;
+		}
+	}
+
+	// Crossings r1 and r2 are made up of the same two segments
+	boolean SamePair(int r1, int r2)
+	{
+		return over[r1]==over[r2] && under[r1]==under[r2];
+	}
+
+	// Remove n crossings from the sequence, starting at position i
+	void RemoveAt(int i, int n)
+	{
+		System.arraycopy(seq,i+n,seq,i,size-i-n);
+		size-=n;
+	}
+
+	// Remove the crossings whose rows are marked, keeping the order of the rest
+	void RemoveRows(boolean[] marked)
+	{
+		int k=0;
+		for(int i=0;i<size;i++)
+		{
+			if(marked[seq[i]])
+				marked[seq[i]]=false;
+			else
+				seq[k++]=seq[i];
+		}
+		size=k;
+	}
+
+	// Position of every row in the sequence, -1 for rows no longer in it
+	int[] Positions()
+	{
+		int[] index=new int[rows];
+		Arrays.fill(index,-1);
+		for(int i=0;i<size;i++)
+			index[seq[i]]=i;
+		return index;
+	}
+}
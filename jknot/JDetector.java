@@ -0,0 +1,57 @@
+package jknot;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Fork-join crossing detection.  The segment range is cut into chunks, each chunk
+// collects its crossings in a table of its own, and the tables are joined in
+// chunk order, which is exactly the sequence the sequential loop produces.
+class JDetector extends RecursiveAction
+{
+	static final int THRESHOLD=4096;	// smaller polymers are not worth splitting
+	static final int CHUNK=1024;	// fewest segments per chunk
+
+	JAnalysis Analysis;
+	JCrossTable[] Buffers;	// crossings found by each chunk
+	int chunk;	// segments per chunk
+	int from,to;	// chunks handled by this task
+
+	JDetector(JAnalysis a, JCrossTable[] buffers, int c, int f, int t)
+	{
+		Analysis=a;
+		Buffers=buffers;
+		chunk=c;
+		from=f;
+		to=t;
+	}
+
+	static void Run(JAnalysis a)
+	{
+		int size=a.Polymer.size;
+		int chunk=Math.max(CHUNK,size/(8*ForkJoinPool.getCommonPoolParallelism())+1);
+		JCrossTable[] buffers=new JCrossTable[(size+chunk-1)/chunk];
+		ForkJoinPool.commonPool().invoke(new JDetector(a,buffers,chunk,0,buffers.length));
+
+		int total=0;
+		for(int k=0;k<buffers.length;k++)
+			total+=buffers[k].size;
+		a.Crossing.Reserve(total);
+		for(int k=0;k<buffers.length;k++)
+			a.Crossing.Append(buffers[k]);
+	}
+
+	protected void compute()
+	{
+		if(to-from>1)
+		{
+			int mid=(from+to)>>>1;
+			invokeAll(new JDetector(Analysis,Buffers,chunk,from,mid),new JDetector(Analysis,Buffers,chunk,mid,to));
+			return;
+		}
+		JCrossTable out=new JCrossTable();
+		int end=Math.min(Analysis.Polymer.size,(from+1)*chunk);
+		for(int i=from*chunk;i<end;i++)
+			Analysis.Detect(i,out);
+		Buffers[from]=out;
+	}
+}
@@ -0,0 +1,206 @@
+package jknot;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+// Determinant of an integer matrix by fraction-free (Bareiss) elimination.  After
+// step i every entry still to be eliminated is an (i+1)x(i+1) minor of the
+// original matrix, so the division by the previous pivot is exact and entries
+// grow only linearly with the step instead of doubling.
+class JDeterminant
+{
+	// Determinant of a sparse n x n matrix, row r holding values vals[r] in columns
+	// cols[r] (the arrays are not changed).  Each step takes
+	// the column with the fewest entries and in it the shortest row, which keeps the
+	// fill small for the nearly bidiagonal Alexander matrix.  A row without an entry
+	// in the pivot column is only multiplied by pivot/previous pivot in a step, so it
+	// is left alone and brought up to date when it is next used: its stored values
+	// times pivot[s]/pivot[level] are exact.
+	static BigInteger Sparse(int n, int[][] cols, BigInteger[][] vals)
+	{
+		if(n==0)
+			return BigInteger.ONE;
+		int[][] rc=new int[n][];	// working rows
+		BigInteger[][] rv=new BigInteger[n][];
+		int[] level=new int[n];	// step the stored values of a row belong to
+		int[][] cr=new int[n][];	// rows with an entry in each column, may hold stale rows
+		int[] crlen=new int[n];
+		int[] ccount=new int[n];	// live entries in each column
+		boolean[] rowdone=new boolean[n],coldone=new boolean[n];
+		int[] prow=new int[n],pcol=new int[n];
+		BigInteger[] pivot=new BigInteger[n+1];
+		pivot[0]=BigInteger.ONE;
+		int r,c,k;
+		for(r=0;r<n;r++)
+		{
+			rc[r]=Arrays.copyOf(cols[r],cols[r].length);
+			rv[r]=Arrays.copyOf(vals[r],vals[r].length);
+			for(k=0;k<rc[r].length;k++)
+				ccount[rc[r][k]]++;
+		}
+		for(c=0;c<n;c++)
+			cr[c]=new int[Math.max(ccount[c],1)];
+		for(r=0;r<n;r++)
+		{
+			for(k=0;k<rc[r].length;k++)
+			{
+				c=rc[r][k];
+				cr[c][crlen[c]++]=r;
+			}
+		}
+
+		BigInteger[] acc=new BigInteger[n];	// row being combined, by column
+		int[] mark=new int[n];	// stamp of the row update that last wrote acc[column]
+		int[] seen=new int[n];	// step that last updated each row
+		int stamp=0;
+		Arrays.fill(seen,-1);
+		for(int s=0;s<n;s++)
+		{
+			// pivot column: fewest entries; pivot row: shortest with an entry there
+			c=-1;
+			for(k=0;k<n;k++)
+			{
+				if(!coldone[k] && (c<0 || ccount[k]<ccount[c]))
+					c=k;
+			}
+			if(ccount[c]==0)	// an empty column, determinant is zero
+				return BigInteger.ZERO;
+			int p=-1;
+			for(k=0;k<crlen[c];k++)
+			{
+				int j=cr[c][k];
+				if(!rowdone[j] && Find(rc[j],c)>=0 && (p<0 || rc[j].length<rc[p].length))
+					p=j;
+			}
+			Raise(rv[p],level[p],s,pivot);
+			level[p]=s;
+			int pc=Find(rc[p],c);
+			pivot[s+1]=rv[p][pc];
+			prow[s]=p;
+			pcol[s]=c;
+			rowdone[p]=true;
+			coldone[c]=true;
+			for(k=0;k<rc[p].length;k++)
+				ccount[rc[p][k]]--;
+
+			// eliminate column c from the other rows that have it
+			seen[p]=s;
+			for(int e=0;e<crlen[c];e++)
+			{
+				int j=cr[c][e];
+				if(rowdone[j] || seen[j]==s)
+					continue;
+				int jc=Find(rc[j],c);
+				if(jc<0)
+					continue;
+				seen[j]=s;
+				Raise(rv[j],level[j],s,pivot);
+				BigInteger m=rv[j][jc];
+				stamp++;
+				int len=0;
+				for(k=0;k<rc[j].length;k++)
+				{
+					int col=rc[j][k];
+					if(col==c)
+						continue;
+					acc[col]=rv[j][k].multiply(pivot[s+1]);
+					mark[col]=stamp;
+					len++;
+				}
+				for(k=0;k<rc[p].length;k++)
+				{
+					int col=rc[p][k];
+					if(col==c)
+						continue;
+					BigInteger v=m.multiply(rv[p][k]);
+					if(mark[col]==stamp)
+					{
+						acc[col]=acc[col].subtract(v);
+					}
+					else
+					{
+						acc[col]=v.negate();
+						mark[col]=stamp;
+						len++;
+					}
+				}
+				// collect the new row, dropping entries that cancelled
+				int[] nc=new int[len];
+				BigInteger[] nv=new BigInteger[len];
+				int q=0;
+				for(k=0;k<rc[j].length+rc[p].length;k++)
+				{
+					int col=(k<rc[j].length?rc[j][k]:rc[p][k-rc[j].length]);
+					if(col==c || mark[col]!=stamp)
+						continue;
+					mark[col]=0;	// take each column once
+					boolean had=(k<rc[j].length);
+					BigInteger v=acc[col];
+					acc[col]=null;
+					if(v.signum()==0)
+					{
+						if(had)
+							ccount[col]--;
+						continue;
+					}
+					if(s>0)
+						v=v.divide(pivot[s]);
+					nc[q]=col;
+					nv[q++]=v;
+					if(!had)	// fill
+					{
+						ccount[col]++;
+						if(crlen[col]==cr[col].length)
+							cr[col]=Arrays.copyOf(cr[col],2*cr[col].length);
+						cr[col][crlen[col]++]=j;
+					}
+				}
+				rc[j]=Arrays.copyOf(nc,q);
+				rv[j]=Arrays.copyOf(nv,q);
+				level[j]=s+1;
+			}
+		}
+
+		BigInteger det=pivot[n];
+		if(Odd(prow)!=Odd(pcol))
+			det=det.negate();
+		return det;
+	}
+
+	// Position of column c in a row, -1 if the row has no entry there
+	static int Find(int[] row, int c)
+	{
+		for(int k=0;k<row.length;k++)
+		{
+			if(row[k]==c)
+				return k;
+		}
+		return -1;
+	}
+
+	// Bring values stored after step l up to date after step s
+	static void Raise(BigInteger[] vals, int l, int s, BigInteger[] pivot)
+	{
+		if(l==s)
+			return;
+		for(int k=0;k<vals.length;k++)
+			vals[k]=vals[k].multiply(pivot[s]).divide(pivot[l]);
+	}
+
+	// Permutation is odd
+	static boolean Odd(int[] perm)
+	{
+		boolean[] visited=new boolean[perm.length];
+		boolean odd=false;
+		for(int i=0;i<perm.length;i++)
+		{
+			for(int j=perm[i];!visited[j];j=perm[j])
+			{
+				visited[j]=true;
+				if(j!=i)
+					odd=!odd;
+			}
+		}
+		return odd;
+	}
+}
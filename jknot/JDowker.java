@@ -0,0 +1,126 @@
+package jknot;
+
+import java.util.Arrays;
+
+// Canonical form of a Dowker code.  The code depends on where the traversal
+// starts, its direction and the side the knot is seen from.  Around the 2n
+// crossing positions, each position is written as the distance forward to its
+// partner together with an over/under bit.  A different start rotates this
+// sequence, reversing the direction reverses it and negates the distances, and
+// the mirror image flips the bits.  The least rotation of each of the four
+// sequences is found by Booth's algorithm in linear time, and the least of
+// those four is written back out as a Dowker code starting at that position.
+// Equal knot diagrams therefore give equal canonical codes.
+public class JDowker
+{
+	// Canonical code of a Dowker code (even partners, negative where the odd
+	// crossing is an overpass); null if the code is not a valid one
+	public static int[] Canonical(int[] code)
+	{
+		int n=code.length,size=2*n;
+		int[] partner=new int[size];
+		boolean[] over=new boolean[size];
+		Arrays.fill(partner,-1);
+		for(int i=0;i<n;i++)	// position 2i (0-based) is the odd crossing 2i+1
+		{
+			int p=Math.abs(code[i])-1;
+			if(p<0 || p>=size || p%2==0 || partner[p]>=0)
+				return null;
+			partner[2*i]=p;
+			partner[p]=2*i;
+			over[2*i]=(code[i]<0);
+			over[p]=!over[2*i];
+		}
+		if(n==0)
+			return code.clone();
+
+		int[][] seq=new int[4][size];	// forward, reversed; each plain and mirrored
+		for(int p=0;p<size;p++)
+		{
+			int d=(partner[p]-p+size)%size;
+			int q=size-1-p;
+			seq[0][p]=2*d+(over[p]?1:0);
+			seq[1][p]=2*d+(over[p]?0:1);
+			seq[2][q]=2*((size-d)%size)+(over[p]?1:0);
+			seq[3][q]=2*((size-d)%size)+(over[p]?0:1);
+		}
+		int best=-1,bestk=0;
+		for(int v=0;v<4;v++)
+		{
+			int k=Least(seq[v]);
+			if(best<0 || Compare(seq[v],k,seq[best],bestk)<0)
+			{
+				best=v;
+				bestk=k;
+			}
+		}
+
+		int[] c=new int[n];
+		for(int i=0;i<size;i+=2)
+		{
+			int s=seq[best][(bestk+i)%size];
+			int p=(i+(s>>1))%size+1;
+			c[i/2]=((s&1)!=0?-p:p);
+		}
+		return c;
+	}
+
+	// Canonical code as text, e.g. "4,6,2", for use as a key; null if not valid
+	public static String Key(int[] code)
+	{
+		int[] c=Canonical(code);
+		if(c==null)
+			return null;
+		StringBuilder s=new StringBuilder();
+		for(int i=0;i<c.length;i++)
+		{
+			if(i>0)
+				s.append(',');
+			s.append(c[i]);
+		}
+		return s.toString();
+	}
+
+	// Start of the lexicographically least rotation of s (Booth)
+	static int Least(int[] s)
+	{
+		int n=s.length,k=0;
+		int[] f=new int[2*n];
+		Arrays.fill(f,-1);
+		for(int j=1;j<2*n;j++)
+		{
+			int sj=s[j%n];
+			int i=f[j-k-1];
+			while(i!=-1 && sj!=s[(k+i+1)%n])
+			{
+				if(sj<s[(k+i+1)%n])
+					k=j-i-1;
+				i=f[i];
+			}
+			if(sj!=s[(k+i+1)%n])	// i==-1
+			{
+				if(sj<s[k%n])
+					k=j;
+				f[j-k]=-1;
+			}
+			else
+			{
+				f[j-k]=i+1;
+			}
+		}
+		return k;
+	}
+
+	// Order of the rotation of a starting at i and that of b starting at j
+	static int Compare(int[] a, int i, int[] b, int j)
+	{
+		int n=a.length;
+		for(int k=0;k<n;k++)
+		{
+			int x=a[(i+k)%n],y=b[(j+k)%n];
+			if(x!=y)
+				return (x<y?-1:1);
+		}
+		return 0;
+	}
+}
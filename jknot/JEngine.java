@@ -0,0 +1,80 @@
+package jknot;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Headless knot analysis.  Runs the same pipeline as the applet (crossing
+ * detection, Reidemeister reduction, Dowker code, Alexander matrix) without
+ * any AWT classes.  Every call works on its own state, so once its settings
+ * are made one engine may be shared by any number of threads.
+ */
+public class JEngine
+{
+	public boolean reduce;	// eliminate trivial crossings before generating invariants
+	public boolean determinant;	// evaluate determinant of n-1 minor of the Alexander matrix
+	public int tvar;	// value of t used for the determinant
+	public int[] tvalues;	// further values of t to evaluate the determinant at, in one pass; null for none
+	public boolean polynomial;	// interpolate the whole Alexander polynomial, evaluating on the fork-join pool
+	public boolean modular;	// determinant modulo 62-bit primes, joined by CRT, instead of BigInteger elimination
+	public boolean parallel;	// detect crossings of large polymers, and run modular primes and tvalues, on the fork-join pool
+	public Semaphore limit;	// permit held while evaluating determinants and polynomial, null for no limit
+	public JCache cache;	// Dowker and Alexander results by crossing sequence, shared between runs; null for none
+	public JMonitor monitor;	// stage times and counts, published over JMX and JFR; null for none
+	public boolean bestprojection;	// analyze the projection of a polymer with fewest crossings after reduction (JProjections)
+	public boolean simplify;	// delete beads by triangle elimination in 3D before projecting (JSimplifier)
+	public boolean runs;	// detect crossings on straight runs of the polymer rather than bead by bead (JRuns)
+
+	public JEngine()
+	{
+		this(true,true,-1);
+	}
+
+	public JEngine(boolean r, boolean d, int t)
+	{
+		reduce=r;
+		determinant=d;
+		tvar=t;
+		tvalues=null;
+		polynomial=false;
+		modular=false;
+		parallel=false;
+		limit=null;
+		cache=null;
+		monitor=null;
+		bestprojection=false;
+		simplify=false;
+		runs=false;
+	}
+
+	// Lattice polymer as input, projected onto the xy plane
+	public JResult Analyze(JPolymer p)
+	{
+		if(bestprojection)
+			return JProjections.Run(this,p).Finish();
+		JAnalysis a=new JAnalysis(this,p);
+		try
+		{
+			a.ParsePolymer();
+		}
+		catch(Exception ex)
+		{
+			a.Fail("Exception:"+ex+"\n");
+		}
+		return a.Finish();
+	}
+
+	// Gauss code for knot as input, e.g. "a+1,b+2,a+3,b+1,a+2,b+3"
+	public JResult AnalyzeGauss(String code)
+	{
+		JAnalysis a=new JAnalysis(this,null);
+		try
+		{
+			a.ParseGauss(code);
+		}
+		catch(Exception ex)
+		{
+			a.Fail("Exception:"+ex+"\n");
+		}
+		return a.Finish();
+	}
+}
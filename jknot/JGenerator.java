@@ -0,0 +1,409 @@
+package jknot;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Closed self-avoiding lattice polygons for sampling ensembles without files.
+// Pivot moves (Madras, Orlitsky and Shepp) take the beads strictly between two
+// beads i and j and either invert them through the midpoint of p_i and p_j, or
+// apply a cube symmetry that maps p_j-p_i to itself about p_i; the shorter arc is
+// moved.  These change the knot type.  BFACF moves change the length by 0 or +-2
+// and keep the knot type; a length change of +2 is accepted with probability
+// beta^2.  Sites are kept in a JLattice, the bead at each site in nextsegindex as
+// IndexPolymer does, so a move is checked against the rest of the polygon in time
+// proportional to the beads it moves.  Usage: java jknot.JGenerator n samples
+// [seed]; prints the fraction of samples with determinant (t=-1) other than +-1,
+// which are certainly knotted.
+public class JGenerator
+{
+	static final int[][] PERMS={{0,1,2},{0,2,1},{1,0,2},{1,2,0},{2,0,1},{2,1,0}};
+
+	public int pivots;	// pivot attempts between samples
+	public int bfacf;	// BFACF attempts between samples
+	public double beta;	// BFACF fugacity per bead
+
+	SplittableRandom random;
+	int n;
+	int[] x,y,z;	// bead coordinates, room for growth beyond n
+	JLattice sites;
+	boolean started;	// first sample has had its burn-in
+
+	// Two square waves in the xz plane (steps +x,+z,+x,-z,...) at y=0 and y=1,
+	// joined at both ends: n beads, n even and at least 4.  Pivots about axes
+	// through the wave move it out of its plane from the first sample on, where a
+	// flat rectangle would only be inverted within its plane.
+	public JGenerator(int size, long seed)
+	{
+		if(size<4 || size%2!=0)
+			throw new IllegalArgumentException("a lattice polygon has an even number of beads, at least 4");
+		n=size;
+		x=new int[n];
+		y=new int[n];
+		z=new int[n];
+		for(int i=1;i<n/2;i++)
+		{
+			x[i]=x[i-1];
+			z[i]=z[i-1];
+			if(i%2==1)
+				x[i]++;
+			else
+				z[i]=1-z[i];
+		}
+		for(int i=0;i<n/2;i++)
+		{
+			x[n-1-i]=x[i];
+			y[n-1-i]=1;
+			z[n-1-i]=z[i];
+		}
+		random=new SplittableRandom(seed);
+		pivots=Math.min(n,1000);	// a pivot costs time in proportion to the beads it moves
+		bfacf=0;
+		beta=0.2135;	// about the critical fugacity of the cubic lattice
+		Index();
+	}
+
+	// Copy of g's polygon and settings, with a random generator split from g's
+	JGenerator(JGenerator g)
+	{
+		n=g.n;
+		x=g.x.clone();
+		y=g.y.clone();
+		z=g.z.clone();
+		pivots=g.pivots;
+		bfacf=g.bfacf;
+		beta=g.beta;
+		random=g.random.split();
+		Index();
+	}
+
+	void Index()
+	{
+		sites=new JLattice(2*n);
+		for(int i=0;i<n;i++)
+			Put(i);
+	}
+
+	void Put(int i)
+	{
+		int s=sites.Add(x[i],y[i],z[i]);	// may grow the table, so before indexing it
+		sites.nextsegindex[s]=i;
+	}
+
+	// Bead at (a,b,c), -1 if none
+	int At(int a, int b, int c)
+	{
+		int s=sites.Find(a,b,c);
+		return (s<0?-1:sites.nextsegindex[s]);
+	}
+
+	// Move to the next sample and return it; the first one has ten times the moves
+	public JPolymer Next()
+	{
+		int rounds=(started?1:10);
+		started=true;
+		for(int r=0;r<rounds;r++)
+		{
+			Pivot(pivots);
+			BFACF(bfacf);
+		}
+		return Polymer();
+	}
+
+	// The polygon, moved into the positive octant
+	public JPolymer Polymer()
+	{
+		int mx=x[0],my=y[0],mz=z[0];
+		for(int i=1;i<n;i++)
+		{
+			mx=Math.min(mx,x[i]);
+			my=Math.min(my,y[i]);
+			mz=Math.min(mz,z[i]);
+		}
+		JPolymer p=new JPolymer();
+		p.size=n;
+		p.x=new int[n];
+		p.y=new int[n];
+		p.z=new int[n];
+		for(int i=0;i<n;i++)
+			p.Put(i,x[i]-mx,y[i]-my,z[i]-mz,0);
+		p.side=p.Side();
+		return p;
+	}
+
+	// Pivot attempts; returns how many were accepted
+	public int Pivot(int attempts)
+	{
+		int accepted=0;
+		int[] nx=new int[n/2],ny=new int[n/2],nz=new int[n/2];
+		for(int a=0;a<attempts;a++)
+		{
+			int i=random.nextInt(n),j=random.nextInt(n);
+			int len=(j-i-1+n)%n;	// beads strictly between i and j, going forward
+			if(i==j || len==0 || len==n-2)
+				continue;
+			if(len>n/2)	// move the other arc
+			{
+				int t=i;
+				i=j;
+				j=t;
+				len=n-2-len;
+			}
+			int dx=x[j]-x[i],dy=y[j]-y[i],dz=z[j]-z[i];
+			boolean invert=random.nextBoolean();
+			int[] perm=PERMS[random.nextInt(6)];
+			int signs=random.nextInt(8);
+			if(!invert)
+			{
+				if(perm==PERMS[0] && signs==0)	// identity
+					continue;
+				int[] d={dx,dy,dz};
+				if(Apply(perm,signs,d,0)!=dx || Apply(perm,signs,d,1)!=dy || Apply(perm,signs,d,2)!=dz)
+					continue;	// does not keep p_j-p_i
+			}
+			boolean free=true;
+			int[] v=new int[3];
+			for(int u=0;u<len && free;u++)
+			{
+				int t=((u&1)==0?1+u/2:len-u/2);	// from both ends inward, where overlaps are most likely
+				int k=(i+t)%n;
+				if(invert)
+				{
+					int m=(j-t+n)%n;
+					nx[t-1]=x[i]+x[j]-x[m];
+					ny[t-1]=y[i]+y[j]-y[m];
+					nz[t-1]=z[i]+z[j]-z[m];
+				}
+				else
+				{
+					v[0]=x[k]-x[i];
+					v[1]=y[k]-y[i];
+					v[2]=z[k]-z[i];
+					nx[t-1]=x[i]+Apply(perm,signs,v,0);
+					ny[t-1]=y[i]+Apply(perm,signs,v,1);
+					nz[t-1]=z[i]+Apply(perm,signs,v,2);
+				}
+				int b=At(nx[t-1],ny[t-1],nz[t-1]);
+				if(b>=0 && (b-i-1+n)%n>=len)	// taken by a bead that stays
+					free=false;
+			}
+			if(!free)
+				continue;
+			for(int t=1;t<=len;t++)
+			{
+				int k=(i+t)%n;
+				sites.Remove(x[k],y[k],z[k]);
+			}
+			for(int t=1;t<=len;t++)
+			{
+				int k=(i+t)%n;
+				x[k]=nx[t-1];
+				y[k]=ny[t-1];
+				z[k]=nz[t-1];
+				Put(k);
+			}
+			accepted++;
+		}
+		return accepted;
+	}
+
+	// Component c of the cube symmetry (perm, signs) applied to v
+	static int Apply(int[] perm, int signs, int[] v, int c)
+	{
+		int w=v[perm[c]];
+		return ((signs>>c)&1)!=0?-w:w;
+	}
+
+	// BFACF attempts; returns how many were accepted
+	public int BFACF(int attempts)
+	{
+		int accepted=0;
+		for(int a=0;a<attempts;a++)
+		{
+			int k=random.nextInt(n),l=(k+1)%n,p=(k+n-1)%n,q=(l+1)%n;
+			int sx=x[l]-x[k],sy=y[l]-y[k],sz=z[l]-z[k];	// the segment k -> k+1
+			int c=random.nextInt(4);	// one of the four directions across it
+			int ax=(sx!=0?1:0),ay=(sx==0 && sy!=0?1:0);	// axis of the segment
+			int dx=0,dy=0,dz=0,sign=((c&1)!=0?-1:1);
+			if(ax==1)
+			{
+				if(c<2) dy=sign; else dz=sign;
+			}
+			else if(ay==1)
+			{
+				if(c<2) dx=sign; else dz=sign;
+			}
+			else
+			{
+				if(c<2) dx=sign; else dy=sign;
+			}
+			boolean before=(x[p]==x[k]+dx && y[p]==y[k]+dy && z[p]==z[k]+dz);
+			boolean after=(x[q]==x[l]+dx && y[q]==y[l]+dy && z[q]==z[l]+dz);
+			if(before && after)	// U across the segment: take beads k and k+1 out
+			{
+				if(n-2<4)
+					continue;
+				sites.Remove(x[k],y[k],z[k]);
+				sites.Remove(x[l],y[l],z[l]);
+				Delete(k,l);
+				accepted++;
+			}
+			else if(before || after)	// corner: flip it across
+			{
+				int m=(before?k:l);	// bead that moves
+				int mx=x[before?l:k]+dx,my=y[before?l:k]+dy,mz=z[before?l:k]+dz;
+				if(At(mx,my,mz)>=0)
+					continue;
+				sites.Remove(x[m],y[m],z[m]);
+				x[m]=mx;
+				y[m]=my;
+				z[m]=mz;
+				Put(m);
+				accepted++;
+			}
+			else	// push the segment out by one
+			{
+				if(random.nextDouble()>=beta*beta)
+					continue;
+				if(At(x[k]+dx,y[k]+dy,z[k]+dz)>=0 || At(x[l]+dx,y[l]+dy,z[l]+dz)>=0)
+					continue;
+				Insert(k,x[k]+dx,y[k]+dy,z[k]+dz,x[l]+dx,y[l]+dy,z[l]+dz);
+				accepted++;
+			}
+		}
+		return accepted;
+	}
+
+	// Two beads after bead k
+	void Insert(int k, int x1, int y1, int z1, int x2, int y2, int z2)
+	{
+		if(n+2>x.length)
+		{
+			int capacity=Math.max(2*x.length,n+2);
+			x=Arrays.copyOf(x,capacity);
+			y=Arrays.copyOf(y,capacity);
+			z=Arrays.copyOf(z,capacity);
+		}
+		int at=k+1;
+		System.arraycopy(x,at,x,at+2,n-at);
+		System.arraycopy(y,at,y,at+2,n-at);
+		System.arraycopy(z,at,z,at+2,n-at);
+		x[at]=x1;
+		y[at]=y1;
+		z[at]=z1;
+		x[at+1]=x2;
+		y[at+1]=y2;
+		z[at+1]=z2;
+		n+=2;
+		Renumber(at);
+	}
+
+	// Take out beads k and l=k+1 (l may be 0)
+	void Delete(int k, int l)
+	{
+		int at=Math.min(k,l);
+		if(l==0)	// last and first bead
+		{
+			System.arraycopy(x,1,x,0,n-2);
+			System.arraycopy(y,1,y,0,n-2);
+			System.arraycopy(z,1,z,0,n-2);
+			at=0;
+		}
+		else
+		{
+			System.arraycopy(x,at+2,x,at,n-at-2);
+			System.arraycopy(y,at+2,y,at,n-at-2);
+			System.arraycopy(z,at+2,z,at,n-at-2);
+		}
+		n-=2;
+		Renumber(at);
+	}
+
+	// Beads from..n-1 have new numbers
+	void Renumber(int from)
+	{
+		for(int i=from;i<n;i++)
+			Put(i);
+	}
+
+	// Samples one after another, count of them; in parallel each split of the
+	// stream continues from a copy of the polygon with a split random generator
+	public Stream<JPolymer> Stream(long count, boolean parallel)
+	{
+		return StreamSupport.stream(new Samples(this,count),parallel);
+	}
+
+	// Results of the engine on count samples, analyzed as they are drawn
+	public Stream<JResult> Analyze(final JEngine e, long count, boolean parallel)
+	{
+		return Stream(count,parallel).map(new Function<JPolymer,JResult>()
+		{
+			public JResult apply(JPolymer p)
+			{
+				return e.Analyze(p);
+			}
+		});
+	}
+
+	static class Samples implements Spliterator<JPolymer>
+	{
+		JGenerator generator;
+		long left;
+
+		Samples(JGenerator g, long count)
+		{
+			generator=g;
+			left=count;
+		}
+
+		public boolean tryAdvance(Consumer<? super JPolymer> action)
+		{
+			if(left<=0)
+				return false;
+			left--;
+			action.accept(generator.Next());
+			return true;
+		}
+
+		public Spliterator<JPolymer> trySplit()
+		{
+			if(left<2)
+				return null;
+			long half=left/2;
+			left-=half;
+			return new Samples(new JGenerator(generator),half);
+		}
+
+		public long estimateSize()
+		{
+			return left;
+		}
+
+		public int characteristics()
+		{
+			return SIZED|SUBSIZED|NONNULL|IMMUTABLE;
+		}
+	}
+
+	public static void main(String[] args)
+	{
+		int size=Integer.parseInt(args[0]);
+		long samples=Long.parseLong(args[1]);
+		long seed=(args.length>2?Long.parseLong(args[2]):1);
+		JEngine e=new JEngine(true,true,-1);
+		long knotted=new JGenerator(size,seed).Analyze(e,samples,true).filter(new Predicate<JResult>()
+		{
+			public boolean test(JResult r)
+			{
+				return r.error==null && r.determinant!=null && r.determinant.abs().compareTo(BigInteger.ONE)!=0;
+			}
+		}).count();
+		System.out.println("n="+size+" samples="+samples+" knotted (det(-1)!=+-1): "+knotted+" ("+String.format("%.4f",(double)knotted/samples)+")");
+	}
+}
@@ -0,0 +1,194 @@
+package jknot;
+
+import java.util.TreeSet;
+
+// Knot analysis that follows local moves of one polymer.  The lattice index and
+// the crossings found by each segment are kept between calls.  After a move only
+// the segments with a moved end, and the segments they crossed before or cross
+// now, are scanned again; the rest of the sequence is reused as it is.  Crossings
+// are found segment by segment, so the joined sequence is exactly what a full
+// run gives, and so are the reduction and invariants built from it.
+// Self-avoidance is assumed; a polymer that is not, or a move that breaks a
+// segment, is analyzed from scratch like JEngine.Analyze does, and so is every
+// polymer when the engine simplifies or looks for the best projection.
+public class JIncremental
+{
+	JEngine Engine;
+	JPolymer Polymer;
+	JAnalysis Index;	// holds Lattice and Columns, and scans segments
+	JCrossTable[] Segment;	// crossings found by each segment, null if none
+	TreeSet<Integer> Crossed;	// segments with crossings, in order
+	int[] x,y,z;	// bead coordinates as indexed
+	int side;	// Polymer.side as indexed
+	boolean valid;	// index matches the polymer
+	JCrossTable scratch=new JCrossTable();
+
+	public JIncremental(JEngine e, JPolymer p)
+	{
+		Engine=e;
+		Polymer=p;
+		Rebuild();
+	}
+
+	// Analysis of the polymer as indexed
+	public JResult Analyze()
+	{
+		if(!valid || Engine.simplify || Engine.bestprojection)	// not the lattice scan of the projection given
+			return Engine.Analyze(Polymer);
+		JAnalysis a=new JAnalysis(Engine,Polymer);
+		int total=0;
+		for(int i:Crossed)
+			total+=Segment[i].size;
+		a.Crossing.Reserve(total);
+		for(int i:Crossed)
+			a.Crossing.Append(Segment[i]);
+		try
+		{
+			a.AnalyzeCrossings();
+		}
+		catch(Exception ex)
+		{
+			a.Fail("Exception:"+ex+"\n");
+		}
+		return a.Finish();
+	}
+
+	// The given beads of the polymer have moved (coordinates already changed);
+	// update the crossings and analyze
+	public JResult Move(int[] beads)
+	{
+		if(!valid || Polymer.size!=x.length || Polymer.side!=side || !Update(beads))
+			Rebuild();
+		return Analyze();
+	}
+
+	// Index the whole polymer and scan every segment
+	void Rebuild()
+	{
+		int n=Polymer.size;
+		x=(n>0?Polymer.x.clone():new int[0]);
+		y=(n>0?Polymer.y.clone():new int[0]);
+		z=(n>0?Polymer.z.clone():new int[0]);
+		side=Polymer.side;
+		Segment=new JCrossTable[n];
+		Crossed=new TreeSet<Integer>();
+		Index=new JAnalysis(Engine,Polymer);
+		try
+		{
+			// room for as many removed sites as beads before the lattice has to grow
+			valid=Index.IndexPolymer(2*n) && Index.Lattice.count==n;
+			for(int i=0;valid && i<n;i++)
+				Scan(i);
+		}
+		catch(Exception ex)
+		{
+			valid=false;
+		}
+	}
+
+	// Crossings found by segment i, found again
+	void Scan(int i)
+	{
+		scratch.Clear();
+		Index.Detect(i,scratch);
+		if(scratch.size==0)
+		{
+			Segment[i]=null;
+			Crossed.remove(i);
+			return;
+		}
+		JCrossTable t=new JCrossTable(scratch.size);
+		t.Append(scratch);
+		Segment[i]=t;
+		Crossed.add(i);
+	}
+
+	// Move beads on the lattice and scan the segments involved; false if the
+	// index cannot follow and has to be rebuilt
+	boolean Update(int[] beads)
+	{
+		int n=Polymer.size;
+		JLattice lattice=Index.Lattice;
+		JColumns columns=Index.Columns;
+		TreeSet<Integer> moved=new TreeSet<Integer>();
+		for(int k=0;k<beads.length;k++)
+		{
+			int b=beads[k];
+			if(b<0 || b>=n)
+				throw new IllegalArgumentException("no bead "+b);
+			if(Polymer.x[b]!=x[b] || Polymer.y[b]!=y[b] || Polymer.z[b]!=z[b])
+				moved.add(b);
+		}
+		if(moved.isEmpty())
+			return true;
+		if(lattice.Full(moved.size()))	// growing would move every site to a new slot
+			return false;
+
+		TreeSet<Integer> touched=new TreeSet<Integer>();	// beads whose segments change
+		TreeSet<Integer> segments=new TreeSet<Integer>();	// segments with a moved end
+		for(int b:moved)
+		{
+			touched.add((b+n-1)%n);
+			touched.add(b);
+			touched.add((b+1)%n);
+			segments.add((b+n-1)%n);
+			segments.add(b);
+		}
+		TreeSet<Integer> rescan=new TreeSet<Integer>(segments);
+		Partners(segments,rescan);	// crossed before the move
+
+		for(int b:touched)
+			columns.Delete(lattice,lattice.Find(x[b],y[b],z[b]));
+		for(int b:moved)
+			lattice.Remove(x[b],y[b],z[b]);
+		for(int b:moved)
+		{
+			x[b]=Polymer.x[b];
+			y[b]=Polymer.y[b];
+			z[b]=Polymer.z[b];
+			if(lattice.Find(x[b],y[b],z[b])>=0)	// site taken
+				return false;
+			lattice.Add(x[b],y[b],z[b]);
+		}
+		for(int b:touched)	// same records as IndexPolymer makes
+		{
+			int node=lattice.Find(x[b],y[b],z[b]);
+			int p=(b==0?n-1:b-1),q=(b==n-1?0:b+1);
+			char pd=Index.SegDir(x[b],y[b],z[b],x[p],y[p],z[p]);
+			char nd=Index.SegDir(x[b],y[b],z[b],x[q],y[q],z[q]);
+			if(pd=='N' || nd=='N')
+				return false;
+			lattice.prevsegindex[node]=p;
+			lattice.prevsegdir[node]=pd;
+			lattice.nextsegindex[node]=b;
+			lattice.nextsegdir[node]=nd;
+			columns.Insert(lattice,node);
+		}
+
+		for(int i:segments)
+			Scan(i);
+		Partners(segments,rescan);	// crossed after the move
+		for(int i:rescan)
+		{
+			if(!segments.contains(i))
+				Scan(i);
+		}
+		return true;
+	}
+
+	// Add the other segment of every crossing found by the given segments
+	void Partners(TreeSet<Integer> segments, TreeSet<Integer> out)
+	{
+		for(int i:segments)
+		{
+			JCrossTable t=Segment[i];
+			if(t==null)
+				continue;
+			for(int r=0;r<t.rows;r++)
+			{
+				out.add(t.over[r]);
+				out.add(t.under[r]);
+			}
+		}
+	}
+}
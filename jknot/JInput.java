@@ -0,0 +1,92 @@
+package jknot;
+
+import java.io.File;
+import java.io.IOException;
+
+// One conformation for JRunner: a polymer in memory, a Gauss code or a
+// coordinate file, with the id its result is reported under
+public class JInput
+{
+	public String id;
+	public JPolymer polymer;
+	public String gauss;
+	public String file;
+	public int projection;	// for file, as in JPolymer.Read
+	public String error;	// why the input could not be read, reported in place of a result
+	long weight;	// rough cost, larger inputs are started first
+
+	JInput(String name)
+	{
+		id=name;
+	}
+
+	public static JInput Polymer(String id, JPolymer p)
+	{
+		JInput in=new JInput(id);
+		in.polymer=p;
+		in.weight=p.size;
+		return in;
+	}
+
+	public static JInput Gauss(String id, String code)
+	{
+		JInput in=new JInput(id);
+		in.gauss=code;
+		in.weight=code.length()/4;	// entries like "a+1,"
+		return in;
+	}
+
+	public static JInput File(String id, String path, int c)
+	{
+		JInput in=new JInput(id);
+		in.file=path;
+		in.projection=c;
+		in.weight=new File(path).length()/8;	// about one bead a line of 8 bytes
+		return in;
+	}
+
+	public static JInput Error(String id, String message)
+	{
+		JInput in=new JInput(id);
+		in.error=message;
+		return in;
+	}
+
+	// Run the engine on this input
+	JResult Analyze(JEngine e)
+	{
+		if(error!=null)
+		{
+			JAnalysis a=new JAnalysis(e,null);
+			a.Fail(error);
+			return a.Finish();
+		}
+		if(gauss!=null)
+			return e.AnalyzeGauss(gauss);
+		JPolymer p=polymer;
+		if(p==null)
+		{
+			p=new JPolymer();
+			String error=null;
+			long t=(e.monitor==null?0:System.nanoTime());
+			try
+			{
+				if(!p.Read(file,projection))
+					error="Error reading "+file+":\n Bad coordinates.\n";
+			}
+			catch(IOException ex)
+			{
+				error="Error reading "+file+":\n "+ex+"\n";
+			}
+			if(e.monitor!=null)
+				e.monitor.Stage(JMonitor.PARSE,t,0);
+			if(error!=null)
+			{
+				JAnalysis a=new JAnalysis(e,null);
+				a.Fail(error);
+				return a.Finish();
+			}
+		}
+		return e.Analyze(p);
+	}
+}
@@ -0,0 +1,157 @@
+package jknot;
+
+import java.util.Arrays;
+
+// Occupied lattice sites of a polymer, replacing the dense JNode[side][side][side].
+// Sites live in an open-addressing hash keyed on the packed (x,y,z), so memory
+// grows with the number of beads rather than with side^3.
+// Node (or vertex) always connected to two other nodes, one segment each.
+class JLattice
+{
+	static final int BITS=21;	// bits per coordinate in a packed key
+	static final int LIMIT=1<<(BITS-1);	// coordinates must lie in [-LIMIT,LIMIT)
+	static final long EMPTY=-1;	// packed keys are never negative
+	static final long GONE=-2;	// removed site, keeps the probe chains through it intact
+
+	long[] keys;
+	public int[] prevsegindex,	// segments of path sequentially indexed
+		nextsegindex;
+	public char[] prevsegdir,	// direction to previous node	'F','B','U','D','L','R'
+		nextsegdir;	// direction to next node
+	int count;	// number of occupied sites
+	int gone;	// number of GONE slots
+	int mask;
+
+	JLattice(int n)
+	{
+		int capacity=8;
+		while(capacity<2*n)	// keep load factor at or below 1/2
+			capacity<<=1;
+		Allocate(capacity);
+	}
+
+	void Allocate(int capacity)
+	{
+		keys=new long[capacity];
+		Arrays.fill(keys,EMPTY);
+		prevsegindex=new int[capacity];
+		nextsegindex=new int[capacity];
+		prevsegdir=new char[capacity];
+		nextsegdir=new char[capacity];
+		mask=capacity-1;
+		count=0;
+		gone=0;
+	}
+
+	static long Pack(int x, int y, int z)
+	{
+		if(x<-LIMIT || x>=LIMIT || y<-LIMIT || y>=LIMIT || z<-LIMIT || z>=LIMIT)
+			throw new IllegalArgumentException("Lattice coordinate out of range: "+x+" "+y+" "+z);
+		return ((long)(x+LIMIT)<<(2*BITS)) | ((long)(y+LIMIT)<<BITS) | (long)(z+LIMIT);
+	}
+
+	static int Z(long k)
+	{
+		return (int)(k&((1L<<BITS)-1))-LIMIT;
+	}
+
+	// Spread the packed bits over the table (finalizer of MurmurHash3)
+	static int Hash(long k)
+	{
+		k^=k>>>33;
+		k*=0xff51afd7ed558ccdL;
+		k^=k>>>33;
+		k*=0xc4ceb9fe1a85ec53L;
+		k^=k>>>33;
+		return (int)k;
+	}
+
+	// Slot of site (x,y,z), -1 if unoccupied
+	int Find(int x, int y, int z)
+	{
+		long k=Pack(x,y,z);
+		int i=Hash(k)&mask;
+		while(keys[i]!=EMPTY)
+		{
+			if(keys[i]==k)
+				return i;
+			i=(i+1)&mask;
+		}
+		return -1;
+	}
+
+	// Slot of site (x,y,z), created with no segments if unoccupied.  Growing the
+	// table moves sites to new slots; that happens when Full(1) is true.
+	int Add(int x, int y, int z)
+	{
+		if(Full(1))
+			Grow();
+		long k=Pack(x,y,z);
+		int i=Hash(k)&mask,free=-1;
+		while(keys[i]!=EMPTY)
+		{
+			if(keys[i]==k)
+				return i;
+			if(keys[i]==GONE && free<0)
+				free=i;
+			i=(i+1)&mask;
+		}
+		if(free>=0)	// reuse the first removed slot on the way
+		{
+			i=free;
+			gone--;
+		}
+		keys[i]=k;
+		prevsegindex[i]=-1;
+		nextsegindex[i]=-1;
+		prevsegdir[i]='N';
+		nextsegdir[i]='N';
+		count++;
+		return i;
+	}
+
+	// Adding n more sites would grow the table
+	boolean Full(int n)
+	{
+		return 2*(count+gone+n)>keys.length;
+	}
+
+	// Take site (x,y,z) off the lattice; other sites keep their slots
+	void Remove(int x, int y, int z)
+	{
+		int i=Find(x,y,z);
+		if(i<0)
+			return;
+		keys[i]=GONE;
+		count--;
+		gone++;
+	}
+
+	void Grow()
+	{
+		long[] k=keys;
+		int[] pi=prevsegindex,ni=nextsegindex;
+		char[] pd=prevsegdir,nd=nextsegdir;
+		Allocate(4*(count+1)>k.length?2*k.length:k.length);	// or just clear the GONE slots
+		for(int j=0;j<k.length;j++)
+		{
+			if(k[j]<0)	// EMPTY or GONE
+				continue;
+			int i=Hash(k[j])&mask;
+			while(keys[i]!=EMPTY)
+				i=(i+1)&mask;
+			keys[i]=k[j];
+			prevsegindex[i]=pi[j];
+			nextsegindex[i]=ni[j];
+			prevsegdir[i]=pd[j];
+			nextsegdir[i]=nd[j];
+			count++;
+		}
+	}
+
+	char NextDir(int x, int y, int z)
+	{
+		int i=Find(x,y,z);
+		return i<0?'N':nextsegdir[i];
+	}
+}
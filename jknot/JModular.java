@@ -0,0 +1,341 @@
+package jknot;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Determinant of a sparse integer matrix modulo several primes just under 2^62,
+// put back together by the Chinese remainder theorem.  The Hadamard bound on the
+// determinant fixes how many primes are needed.  Elimination modulo one prime
+// uses only long arithmetic (Montgomery products), and the primes do not depend
+// on each other, so they may be spread over the fork-join pool.
+class JModular extends RecursiveAction
+{
+	static final int BITS=61;	// every prime is above 2^61
+	static final ArrayList<Long> Primes=new ArrayList<Long>();	// found so far, going down from 2^62
+
+	int n;
+	int[][] cols;
+	long[][] vals;
+	long[] primes,residues;
+	int from,to;	// primes handled by this task
+
+	JModular(int size, int[][] c, long[][] v, long[] p, long[] r, int f, int t)
+	{
+		n=size;
+		cols=c;
+		vals=v;
+		primes=p;
+		residues=r;
+		from=f;
+		to=t;
+	}
+
+	// Determinant of an n x n matrix, row r holding values vals[r] in columns cols[r]
+	static BigInteger Determinant(int n, int[][] cols, long[][] vals, boolean parallel)
+	{
+		if(n==0)
+			return BigInteger.ONE;
+		double bits=2;	// log2 of the Hadamard bound, plus the sign and some slack
+		for(int r=0;r<n;r++)
+		{
+			double sq=0;
+			for(int k=0;k<vals[r].length;k++)
+				sq+=(double)vals[r][k]*vals[r][k];
+			if(sq==0)	// empty row
+				return BigInteger.ZERO;
+			bits+=0.5*Math.log(sq)/Math.log(2);
+		}
+		long[] primes=Primes((int)(bits/BITS)+1);
+		long[] residues=new long[primes.length];
+		JModular task=new JModular(n,cols,vals,primes,residues,0,primes.length);
+		if(parallel && primes.length>1)
+			ForkJoinPool.commonPool().invoke(task);
+		else
+			task.compute();
+		return Combine(primes,residues);
+	}
+
+	// The first k primes below 2^62
+	static long[] Primes(int k)
+	{
+		synchronized(Primes)
+		{
+			long p=(Primes.isEmpty()?(1L<<62)+1:Primes.get(Primes.size()-1));
+			while(Primes.size()<k)
+			{
+				do
+					p-=2;
+				while(!BigInteger.valueOf(p).isProbablePrime(100));
+				Primes.add(p);
+			}
+			long[] a=new long[k];
+			for(int i=0;i<k;i++)
+				a[i]=Primes.get(i);
+			return a;
+		}
+	}
+
+	protected void compute()
+	{
+		if(to-from>1)
+		{
+			int mid=(from+to)>>>1;
+			invokeAll(new JModular(n,cols,vals,primes,residues,from,mid),new JModular(n,cols,vals,primes,residues,mid,to));
+			return;
+		}
+		for(int i=from;i<to;i++)
+			residues[i]=Residue(n,cols,vals,primes[i]);
+	}
+
+	// p^-1 mod 2^64, for odd p
+	static long Inverse64(long p)
+	{
+		long q=p;	// right in the low 3 bits, each step doubles that
+		for(int i=0;i<5;i++)
+			q*=2-p*q;
+		return q;
+	}
+
+	// a*b/2^64 mod p (Montgomery product) for a, b in [0,p) and q=p^-1 mod 2^64
+	static long Mul(long a, long b, long p, long q)
+	{
+		long lo=a*b,hi=Math.multiplyHigh(a,b);
+		long m=lo*q;
+		long r=hi-(Math.multiplyHigh(m,p)+((m>>63)&p));	// m*p has the same low word as a*b
+		return (r<0?r+p:r);
+	}
+
+	// 2^128 mod p, takes a value into Montgomery form by one product
+	static long Square64(long p)
+	{
+		return BigInteger.ONE.shiftLeft(128).mod(BigInteger.valueOf(p)).longValue();
+	}
+
+	// a^e for a in Montgomery form, one being 2^64 mod p
+	static long Pow(long a, long e, long one, long p, long q)
+	{
+		long r=one;
+		while(e>0)
+		{
+			if((e&1)!=0)
+				r=Mul(r,a,p,q);
+			a=Mul(a,a,p,q);
+			e>>=1;
+		}
+		return r;
+	}
+
+	// Determinant mod p of the n x n matrix in (column, value) rows, by sparse
+	// elimination in the same pivot order as JDeterminant.Sparse: column with
+	// fewest entries, shortest row in it
+	static long Residue(int n, int[][] cols, long[][] vals, long p)
+	{
+		long q=Inverse64(p),r2=Square64(p);
+		long one=Mul(1,r2,p,q);
+		int[][] rc=new int[n][];
+		long[][] rv=new long[n][];
+		int[][] cr=new int[n][];	// rows with an entry in each column, may hold stale rows
+		int[] crlen=new int[n];
+		int[] ccount=new int[n];
+		boolean[] rowdone=new boolean[n],coldone=new boolean[n];
+		int[] prow=new int[n],pcol=new int[n];
+		int r,c,k;
+		for(r=0;r<n;r++)	// entries in Montgomery form, dropping multiples of p
+		{
+			int len=0;
+			rc[r]=new int[cols[r].length];
+			rv[r]=new long[cols[r].length];
+			for(k=0;k<cols[r].length;k++)
+			{
+				long v=vals[r][k]%p;
+				if(v==0)
+					continue;
+				if(v<0)
+					v+=p;
+				rc[r][len]=cols[r][k];
+				rv[r][len++]=Mul(v,r2,p,q);
+				ccount[cols[r][k]]++;
+			}
+			if(len<rc[r].length)
+			{
+				rc[r]=Arrays.copyOf(rc[r],len);
+				rv[r]=Arrays.copyOf(rv[r],len);
+			}
+		}
+		for(c=0;c<n;c++)
+			cr[c]=new int[Math.max(ccount[c],1)];
+		for(r=0;r<n;r++)
+		{
+			for(k=0;k<rc[r].length;k++)
+			{
+				c=rc[r][k];
+				cr[c][crlen[c]++]=r;
+			}
+		}
+
+		long det=one;
+		long[] acc=new long[n];
+		int[] mark=new int[n];
+		int[] seen=new int[n];
+		int stamp=0;
+		Arrays.fill(seen,-1);
+		for(int s=0;s<n;s++)
+		{
+			c=-1;
+			for(k=0;k<n;k++)
+			{
+				if(!coldone[k] && (c<0 || ccount[k]<ccount[c]))
+					c=k;
+			}
+			if(ccount[c]==0)
+				return 0;
+			int pr=-1;
+			for(k=0;k<crlen[c];k++)
+			{
+				int j=cr[c][k];
+				if(!rowdone[j] && JDeterminant.Find(rc[j],c)>=0 && (pr<0 || rc[j].length<rc[pr].length))
+					pr=j;
+			}
+			long pivot=rv[pr][JDeterminant.Find(rc[pr],c)];
+			det=Mul(det,pivot,p,q);
+			long inverse=Pow(pivot,p-2,one,p,q);
+			prow[s]=pr;
+			pcol[s]=c;
+			rowdone[pr]=true;
+			coldone[c]=true;
+			for(k=0;k<rc[pr].length;k++)
+				ccount[rc[pr][k]]--;
+
+			seen[pr]=s;
+			for(int e=0;e<crlen[c];e++)
+			{
+				int j=cr[c][e];
+				if(rowdone[j] || seen[j]==s)
+					continue;
+				int jc=JDeterminant.Find(rc[j],c);
+				if(jc<0)
+					continue;
+				seen[j]=s;
+				long f=Mul(rv[j][jc],inverse,p,q);
+				stamp++;
+				int len=0;
+				for(k=0;k<rc[j].length;k++)
+				{
+					int col=rc[j][k];
+					if(col==c)
+						continue;
+					acc[col]=rv[j][k];
+					mark[col]=stamp;
+					len++;
+				}
+				for(k=0;k<rc[pr].length;k++)
+				{
+					int col=rc[pr][k];
+					if(col==c)
+						continue;
+					long v=Mul(f,rv[pr][k],p,q);
+					if(mark[col]!=stamp)
+					{
+						acc[col]=0;
+						mark[col]=stamp;
+						len++;
+					}
+					acc[col]-=v;
+					if(acc[col]<0)
+						acc[col]+=p;
+				}
+				int[] nc=new int[len];
+				long[] nv=new long[len];
+				int m=0;
+				for(k=0;k<rc[j].length+rc[pr].length;k++)
+				{
+					int col=(k<rc[j].length?rc[j][k]:rc[pr][k-rc[j].length]);
+					if(col==c || mark[col]!=stamp)
+						continue;
+					mark[col]=0;
+					boolean had=(k<rc[j].length);
+					if(acc[col]==0)
+					{
+						if(had)
+							ccount[col]--;
+						continue;
+					}
+					nc[m]=col;
+					nv[m++]=acc[col];
+					if(!had)	// fill
+					{
+						ccount[col]++;
+						if(crlen[col]==cr[col].length)
+							cr[col]=Arrays.copyOf(cr[col],2*cr[col].length);
+						cr[col][crlen[col]++]=j;
+					}
+				}
+				rc[j]=Arrays.copyOf(nc,m);
+				rv[j]=Arrays.copyOf(nv,m);
+			}
+		}
+		det=Mul(det,1,p,q);
+		if(JDeterminant.Odd(prow)!=JDeterminant.Odd(pcol) && det!=0)
+			det=p-det;
+		return det;
+	}
+
+	// a*b mod p, for a, b in [0,p)
+	static long MulMod(long a, long b, long p, long q, long r2)
+	{
+		return Mul(Mul(a,b,p,q),r2,p,q);
+	}
+
+	// a^-1 mod p, for a in [1,p)
+	static long Inverse(long a, long p)
+	{
+		long r0=p,r1=a,s0=0,s1=1;
+		while(r1!=0)
+		{
+			long f=r0/r1,t;
+			t=r0-f*r1;
+			r0=r1;
+			r1=t;
+			t=s0-f*s1;
+			s0=s1;
+			s1=t;
+		}
+		return (s0<0?s0+p:s0);
+	}
+
+	// Value in the symmetric range with the given residues (Garner's mixed radix)
+	static BigInteger Combine(long[] primes, long[] residues)
+	{
+		int k=primes.length;
+		long[] digit=new long[k];
+		for(int i=0;i<k;i++)
+		{
+			long p=primes[i],q=Inverse64(p),r2=Square64(p);
+			long one=Mul(1,r2,p,q);
+			// digits so far and the product of the primes before i, in Montgomery form
+			long t=0,m=one;
+			for(int j=0;j<i;j++)
+			{
+				t+=Mul(Mul(digit[j]%p,r2,p,q),m,p,q);
+				if(t>=p)
+					t-=p;
+				m=Mul(m,Mul(primes[j]%p,r2,p,q),p,q);
+			}
+			long d=Mul(residues[i],r2,p,q)-t;
+			if(d<0)
+				d+=p;
+			digit[i]=Mul(Mul(d,Pow(m,p-2,one,p,q),p,q),1,p,q);	// d/m mod p
+		}
+		BigInteger x=BigInteger.ZERO,modulus=BigInteger.ONE;
+		for(int i=k-1;i>=0;i--)
+			x=x.multiply(BigInteger.valueOf(primes[i])).add(BigInteger.valueOf(digit[i]));
+		for(int i=0;i<k;i++)
+			modulus=modulus.multiply(BigInteger.valueOf(primes[i]));
+		if(x.shiftLeft(1).compareTo(modulus)>0)
+			x=x.subtract(modulus);
+		return x;
+	}
+}
@@ -0,0 +1,282 @@
+package jknot;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+// Stage times and counts of the runs of engines that have it as their monitor,
+// published as the attributes of an MBean and as Flight Recorder events
+// (jknot.Stage, jknot.Run) while a recording has them enabled.  An engine
+// without a monitor only tests for null at each stage; one with a monitor reads
+// the clock twice a stage and adds to striped counters, so runs on many threads
+// do not contend.
+public class JMonitor implements JMonitorMBean
+{
+	static final int PARSE=0,DETECT=1,MATCH=2,REDUCE=3,DOWKER=4,ALEXANDER=5,DETERMINANT=6,SIMPLIFY=7;
+	static final String[] STAGES={"parse","detect","match","reduce","dowker","alexander","determinant","simplify"};
+	public static final String NAME="jknot:type=JMonitor";
+
+	static JMonitor registered;
+
+	LongAdder[] nanos=new LongAdder[STAGES.length],calls=new LongAdder[STAGES.length];
+	LongAdder runs=new LongAdder(),errors=new LongAdder(),crossings=new LongAdder(),reduced=new LongAdder();
+	LongAdder loops=new LongAdder(),bigons=new LongAdder(),triangles=new LongAdder(),macro=new LongAdder();
+	AtomicLong matrix=new AtomicLong(),maxmatrix=new AtomicLong(),bits=new AtomicLong(),maxbits=new AtomicLong();
+
+	public JMonitor()
+	{
+		for(int i=0;i<STAGES.length;i++)
+		{
+			nanos[i]=new LongAdder();
+			calls[i]=new LongAdder();
+		}
+	}
+
+	// The monitor registered with the platform MBean server under NAME, made on the first call
+	public static synchronized JMonitor Register()
+	{
+		if(registered==null)
+		{
+			JMonitor m=new JMonitor();
+			try
+			{
+				ManagementFactory.getPlatformMBeanServer().registerMBean(m,new ObjectName(NAME));
+			}
+			catch(JMException ex)
+			{
+				throw new IllegalStateException("cannot register "+NAME+": "+ex);
+			}
+			registered=m;
+		}
+		return registered;
+	}
+
+	// A stage begun at start (System.nanoTime) has ended, leaving the given crossings
+	void Stage(int stage, long start, int n)
+	{
+		long time=System.nanoTime()-start;
+		nanos[stage].add(time);
+		calls[stage].increment();
+		JStageEvent e=new JStageEvent();
+		if(e.shouldCommit())
+		{
+			e.stage=STAGES[stage];
+			e.time=time;
+			e.crossings=n;
+			e.commit();
+		}
+	}
+
+	// A run has finished
+	void Run(JAnalysis a)
+	{
+		JResult r=a.Result;
+		int[] m=a.Moves;
+		int dimension=Math.max(a.Dimension,0);
+		int b=(r.determinant==null?0:r.determinant.bitLength());
+		runs.increment();
+		if(r.error!=null)
+			errors.increment();
+		crossings.add(r.crossings);
+		if(r.reducedcrossings>=0)	// -1 when not reduced
+			reduced.add(r.reducedcrossings);
+		loops.add(m[0]);
+		bigons.add(m[1]);
+		triangles.add(m[2]);
+		macro.add(m[3]);
+		if(a.Dimension>=0)
+		{
+			matrix.set(dimension);
+			Max(maxmatrix,dimension);
+		}
+		if(r.determinant!=null)
+		{
+			bits.set(b);
+			Max(maxbits,b);
+		}
+		JRunEvent e=new JRunEvent();
+		if(e.shouldCommit())
+		{
+			e.crossings=r.crossings;
+			e.reduced=r.reducedcrossings;
+			e.loops=m[0];
+			e.bigons=m[1];
+			e.triangles=m[2];
+			e.macro=m[3];
+			e.matrix=dimension;
+			e.bits=b;
+			e.error=(r.error!=null);
+			e.commit();
+		}
+	}
+
+	static void Max(AtomicLong a, long v)
+	{
+		long old;
+		while(v>(old=a.get()) && !a.compareAndSet(old,v))
+			;
+	}
+
+	public void Reset()
+	{
+		for(int i=0;i<STAGES.length;i++)
+		{
+			nanos[i].reset();
+			calls[i].reset();
+		}
+		runs.reset();
+		errors.reset();
+		crossings.reset();
+		reduced.reset();
+		loops.reset();
+		bigons.reset();
+		triangles.reset();
+		macro.reset();
+		matrix.set(0);
+		maxmatrix.set(0);
+		bits.set(0);
+		maxbits.set(0);
+	}
+
+	public long getRuns()
+	{
+		return runs.sum();
+	}
+
+	public long getErrors()
+	{
+		return errors.sum();
+	}
+
+	public long getCrossings()
+	{
+		return crossings.sum();
+	}
+
+	public long getReducedCrossings()
+	{
+		return reduced.sum();
+	}
+
+	public long getLoops()
+	{
+		return loops.sum();
+	}
+
+	public long getBigons()
+	{
+		return bigons.sum();
+	}
+
+	public long getTriangles()
+	{
+		return triangles.sum();
+	}
+
+	public long getMacroMoves()
+	{
+		return macro.sum();
+	}
+
+	public long getMatrixDimension()
+	{
+		return matrix.get();
+	}
+
+	public long getMaxMatrixDimension()
+	{
+		return maxmatrix.get();
+	}
+
+	public long getDeterminantBits()
+	{
+		return bits.get();
+	}
+
+	public long getMaxDeterminantBits()
+	{
+		return maxbits.get();
+	}
+
+	public long getParseNanos()
+	{
+		return nanos[PARSE].sum();
+	}
+
+	public long getDetectNanos()
+	{
+		return nanos[DETECT].sum();
+	}
+
+	public long getMatchNanos()
+	{
+		return nanos[MATCH].sum();
+	}
+
+	public long getReduceNanos()
+	{
+		return nanos[REDUCE].sum();
+	}
+
+	public long getDowkerNanos()
+	{
+		return nanos[DOWKER].sum();
+	}
+
+	public long getAlexanderNanos()
+	{
+		return nanos[ALEXANDER].sum();
+	}
+
+	public long getDeterminantNanos()
+	{
+		return nanos[DETERMINANT].sum();
+	}
+
+	public long getSimplifyNanos()
+	{
+		return nanos[SIMPLIFY].sum();
+	}
+
+	public long getParseCalls()
+	{
+		return calls[PARSE].sum();
+	}
+
+	public long getDetectCalls()
+	{
+		return calls[DETECT].sum();
+	}
+
+	public long getMatchCalls()
+	{
+		return calls[MATCH].sum();
+	}
+
+	public long getReduceCalls()
+	{
+		return calls[REDUCE].sum();
+	}
+
+	public long getDowkerCalls()
+	{
+		return calls[DOWKER].sum();
+	}
+
+	public long getAlexanderCalls()
+	{
+		return calls[ALEXANDER].sum();
+	}
+
+	public long getDeterminantCalls()
+	{
+		return calls[DETERMINANT].sum();
+	}
+
+	public long getSimplifyCalls()
+	{
+		return calls[SIMPLIFY].sum();
+	}
+}
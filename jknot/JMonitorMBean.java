@@ -0,0 +1,40 @@
+package jknot;
+
+// Attributes JMonitor publishes over JMX; times are nanoseconds summed over all
+// runs, counts are totals, and the matrix and determinant are those of the last
+// run that made them
+public interface JMonitorMBean
+{
+	long getRuns();
+	long getErrors();
+	long getCrossings();
+	long getReducedCrossings();
+	long getLoops();	// Reidemeister I moves
+	long getBigons();	// Reidemeister II
+	long getTriangles();	// Reidemeister III
+	long getMacroMoves();
+	long getMatrixDimension();
+	long getMaxMatrixDimension();
+	long getDeterminantBits();
+	long getMaxDeterminantBits();
+
+	long getParseNanos();
+	long getDetectNanos();
+	long getMatchNanos();
+	long getReduceNanos();
+	long getDowkerNanos();
+	long getAlexanderNanos();
+	long getDeterminantNanos();
+	long getSimplifyNanos();
+
+	long getParseCalls();
+	long getDetectCalls();
+	long getMatchCalls();
+	long getReduceCalls();
+	long getDowkerCalls();
+	long getAlexanderCalls();
+	long getDeterminantCalls();
+	long getSimplifyCalls();
+
+	void Reset();
+}
@@ -0,0 +1,62 @@
+package jknot;
+
+import java.util.Arrays;
+
+// The first two positions in a crossing sequence at which each (over,under)
+// segment pair occurs.  Open addressing on the packed pair, built in one pass.
+class JPairMap
+{
+	long[] keys;
+	boolean[] used;
+	int[] first,second;	// positions, second is -1 if the pair occurs only once
+	int mask;
+
+	JPairMap(JCrossTable t)
+	{
+		int capacity=8;
+		while(capacity<2*t.size)
+			capacity<<=1;
+		keys=new long[capacity];
+		used=new boolean[capacity];
+		first=new int[capacity];
+		second=new int[capacity];
+		mask=capacity-1;
+		for(int i=0;i<t.size;i++)
+		{
+			int s=Slot(t,t.seq[i]);
+			if(!used[s])
+			{
+				used[s]=true;
+				keys[s]=Key(t,t.seq[i]);
+				first[s]=i;
+				second[s]=-1;
+			}
+			else if(second[s]<0)
+			{
+				second[s]=i;
+			}
+		}
+	}
+
+	static long Key(JCrossTable t, int r)
+	{
+		return ((long)t.over[r]<<32) | (t.under[r]&0xffffffffL);
+	}
+
+	// slot of the pair of row r, or the free slot where it belongs
+	int Slot(JCrossTable t, int r)
+	{
+		long k=Key(t,r);
+		int s=JLattice.Hash(k)&mask;
+		while(used[s] && keys[s]!=k)
+			s=(s+1)&mask;
+		return s;
+	}
+
+	// First position other than i holding the same pair as position i, -1 if none
+	int Other(JCrossTable t, int i)
+	{
+		int s=Slot(t,t.seq[i]);
+		return first[s]!=i?first[s]:second[s];
+	}
+}
@@ -0,0 +1,81 @@
+package jknot;
+
+import java.util.Arrays;
+
+// Crossings found by a detector that does not scan the lattice (JRuns,
+// JPolygonDetector), one row each, and both passes of every crossing put in
+// order segment by segment, as the lattice scan adds them to the sequence.  Pass
+// 2f is the overpass of crossing f, on segment over[f]; pass 2f+1 its underpass,
+// on under[f].  The key of a pass is its place along its segment, increasing the
+// way the segment is traversed.
+class JPasses
+{
+	int found;
+	int[] over,under;	// segments
+	long[] key;	// by pass
+	double[] x,y;	// projected point
+
+	JPasses()
+	{
+		over=new int[16];
+		under=new int[16];
+		key=new long[32];
+		x=new double[16];
+		y=new double[16];
+	}
+
+	// Keep a crossing of segment o over segment u, at (px,py) in the projection
+	void Add(int o, long ko, int u, long ku, double px, double py)
+	{
+		if(found==over.length)
+		{
+			over=Arrays.copyOf(over,2*found);
+			under=Arrays.copyOf(under,2*found);
+			key=Arrays.copyOf(key,4*found);
+			x=Arrays.copyOf(x,2*found);
+			y=Arrays.copyOf(y,2*found);
+		}
+		over[found]=o;
+		under[found]=u;
+		key[2*found]=ko;
+		key[2*found+1]=ku;
+		x[found]=px;
+		y[found]=py;
+		found++;
+	}
+
+	// Every pass, segment by segment along a polygon of n segments and in order
+	// along each
+	int[] Order(int n)
+	{
+		int[] first=new int[n+1];	// passes of segment i are pass[first[i]..first[i+1]-1]
+		for(int f=0;f<found;f++)
+		{
+			first[over[f]+1]++;
+			first[under[f]+1]++;
+		}
+		for(int i=0;i<n;i++)
+			first[i+1]+=first[i];
+		int[] next=Arrays.copyOf(first,n);
+		int[] pass=new int[2*found];
+		for(int f=0;f<found;f++)
+		{
+			pass[next[over[f]]++]=2*f;
+			pass[next[under[f]]++]=2*f+1;
+		}
+		for(int i=0;i<n;i++)
+		{
+			for(int e=first[i]+1;e<first[i+1];e++)	// few crossings a segment; insertion sort
+			{
+				int v=pass[e],f=e;
+				while(f>first[i] && key[pass[f-1]]>key[v])
+				{
+					pass[f]=pass[f-1];
+					f--;
+				}
+				pass[f]=v;
+			}
+		}
+		return pass;
+	}
+}
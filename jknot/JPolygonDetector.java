@@ -0,0 +1,195 @@
+package jknot;
+
+import java.util.Arrays;
+
+// Crossing detection for a polygon of straight segments that are not lattice
+// steps, as JSimplifier leaves it.  Like the lattice projection this one is
+// tilted a little off z, but by amounts no lattice vector lines up with, so no
+// bead falls on another segment in the plane and no two segments overlap.  The
+// projected segments go in a grid of square cells; two segments are tested in
+// every cell both meet, and their crossing is kept only in the cell it lies in.
+// Each segment's crossings are then put in order along it, so the sequence is
+// made up just as the lattice scan makes it: segment i runs from bead i to bead
+// i+1, and the higher one (in z) at a crossing is the overpass.
+class JPolygonDetector
+{
+	static final double A=0.7548776662466927,B=0.5698402909980532;	// tilt along x and y, times side
+	static final int SPREAD=8;	// most grid cells per segment on average
+
+	JPolymer Polymer;
+	int n;
+	double[] px,py;	// projected beads
+	double xlo,ylo,h;	// corner of cell (0,0) and cell edge
+	int[] lo,hi;	// cell range of each segment, x then y
+
+	long[] keys;	// packed cell of each slot, -1 empty
+	int[] number;	// cell number at the same slot as its key
+	int cells;
+	int[] start,segment;	// segments in cell c are segment[start[c]..start[c+1]-1]
+
+	JPasses Passes=new JPasses();	// crossings found
+
+	JPolygonDetector(JPolymer p)
+	{
+		Polymer=p;
+		n=p.size;
+	}
+
+	// Crossings of a.Polymer into a.Crossing
+	static void Run(JAnalysis a)
+	{
+		JPolygonDetector d=new JPolygonDetector(a.Polymer);
+		if(d.n<4)
+			return;
+		d.Project();
+		d.Grid();
+		for(int c=0;c<d.cells;c++)
+			for(int i=d.start[c];i<d.start[c+1];i++)
+				for(int j=i+1;j<d.start[c+1];j++)
+					d.Test(d.segment[i],d.segment[j],c);
+		d.Sequence(a.Crossing);
+	}
+
+	void Project()
+	{
+		double side=Math.max(1,Polymer.side);
+		px=new double[n];
+		py=new double[n];
+		xlo=Double.MAX_VALUE;
+		ylo=Double.MAX_VALUE;
+		for(int i=0;i<n;i++)
+		{
+			px[i]=Polymer.x[i]+A*Polymer.z[i]/side;
+			py[i]=Polymer.y[i]+B*Polymer.z[i]/side;
+			xlo=Math.min(xlo,px[i]);
+			ylo=Math.min(ylo,py[i]);
+		}
+	}
+
+	// Cell edge that keeps the segments to a few cells each, and the segments in every cell
+	void Grid()
+	{
+		double sum=0;
+		for(int i=0;i<n;i++)
+		{
+			int j=(i+1)%n;
+			sum+=Math.max(Math.abs(px[j]-px[i]),Math.abs(py[j]-py[i]));
+		}
+		lo=new int[2*n];
+		hi=new int[2*n];
+		long total;
+		for(h=Math.max(1,sum/n);;h*=2)
+		{
+			total=0;
+			for(int i=0;i<n;i++)
+			{
+				int j=(i+1)%n;
+				lo[2*i]=CellX(Math.min(px[i],px[j]));
+				hi[2*i]=CellX(Math.max(px[i],px[j]));
+				lo[2*i+1]=CellY(Math.min(py[i],py[j]));
+				hi[2*i+1]=CellY(Math.max(py[i],py[j]));
+				total+=(long)(hi[2*i]-lo[2*i]+1)*(hi[2*i+1]-lo[2*i+1]+1);
+			}
+			if(total<=(long)SPREAD*n)
+				break;
+		}
+
+		int capacity=8;
+		while(capacity<2*total)	// load factor at or below 1/2
+			capacity<<=1;
+		keys=new long[capacity];
+		Arrays.fill(keys,-1);
+		number=new int[capacity];
+		start=new int[(int)total+1];
+		for(int i=0;i<n;i++)	// number the cells and count their segments
+			for(int x=lo[2*i];x<=hi[2*i];x++)
+				for(int y=lo[2*i+1];y<=hi[2*i+1];y++)
+					start[Cell(x,y)+1]++;
+		for(int c=0;c<cells;c++)
+			start[c+1]+=start[c];
+		int[] next=Arrays.copyOf(start,cells);
+		segment=new int[(int)total];
+		for(int i=0;i<n;i++)
+			for(int x=lo[2*i];x<=hi[2*i];x++)
+				for(int y=lo[2*i+1];y<=hi[2*i+1];y++)
+					segment[next[Cell(x,y)]++]=i;
+	}
+
+	int CellX(double x)
+	{
+		return (int)((x-xlo)/h);
+	}
+
+	int CellY(double y)
+	{
+		return (int)((y-ylo)/h);
+	}
+
+	// Number of cell (x,y), made on first use
+	int Cell(int x, int y)
+	{
+		long k=((long)x<<32)|y;
+		int mask=keys.length-1;
+		int s=JLattice.Hash(k)&mask;
+		while(keys[s]!=-1)
+		{
+			if(keys[s]==k)
+				return number[s];
+			s=(s+1)&mask;
+		}
+		keys[s]=k;
+		number[s]=cells;
+		return cells++;
+	}
+
+	// Keep the crossing of segments i and j if it lies in cell c
+	void Test(int i, int j, int c)
+	{
+		int i2=(i+1)%n,j2=(j+1)%n;
+		if(i2==j || j2==i)	// neighbours only meet at their common bead
+			return;
+		double dx=px[i2]-px[i],dy=py[i2]-py[i];
+		double ex=px[j2]-px[j],ey=py[j2]-py[j];
+		double den=dx*ey-dy*ex;
+		if(den==0)
+			return;
+		double qx=px[j]-px[i],qy=py[j]-py[i];
+		double s=(qx*ey-qy*ex)/den,r=(qx*dy-qy*dx)/den;	// along i and along j
+		if(s<=0 || s>=1 || r<=0 || r>=1)
+			return;
+		double x=Math.max(Math.min(px[i]+s*dx,Math.max(px[j],px[j2])),Math.min(px[j],px[j2]));	// inside both boxes
+		double y=Math.max(Math.min(py[i]+s*dy,Math.max(py[j],py[j2])),Math.min(py[j],py[j2]));
+		x=Math.max(Math.min(x,Math.max(px[i],px[i2])),Math.min(px[i],px[i2]));
+		y=Math.max(Math.min(y,Math.max(py[i],py[i2])),Math.min(py[i],py[i2]));
+		if(Cell(CellX(x),CellY(y))!=c)	// counted in the cell it lies in
+			return;
+		double zi=Polymer.z[i]+s*(Polymer.z[i2]-Polymer.z[i]);
+		double zj=Polymer.z[j]+r*(Polymer.z[j2]-Polymer.z[j]);
+		long ks=Double.doubleToLongBits(s),kr=Double.doubleToLongBits(r);	// in order as s and r, both above 0
+		if(zi>zj)
+			Passes.Add(i,ks,j,kr,x,y);
+		else
+			Passes.Add(j,kr,i,ks,x,y);
+	}
+
+	// Both passes of every crossing, segment by segment in order along each
+	void Sequence(JCrossTable out)
+	{
+		out.Reserve(2*Passes.found);
+		for(int v:Passes.Order(n))
+			Add(out,v);
+	}
+
+	// Append a pass; the directions stand for the segments turned to lattice
+	// steps that cross the same way, which is all the Alexander matrix and the
+	// writhe read from them
+	void Add(JCrossTable out, int v)
+	{
+		int k=v>>1;
+		int o=Passes.over[k],o2=(o+1)%n,w=Passes.under[k],w2=(w+1)%n;
+		double ox=px[o2]-px[o],oy=py[o2]-py[o];
+		double wx=px[w2]-px[w],wy=py[w2]-py[w];
+		boolean right=(ox*wy-oy*wx<0);	// as 'F' over 'L'
+		out.Add((v&1)==0,o,w,Passes.x[k],Passes.y[k],Math.abs(oy)>Math.abs(ox),right?'F':'L',right?'L':'F');
+	}
+}
@@ -0,0 +1,269 @@
+package jknot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.StringTokenizer;
+
+public class JPolymer
+{
+	static final long WINDOW=1L<<30;	// most bytes of a file mapped as one buffer
+
+	public int[] x,y,z;
+	public int size;	//number of points; (lattice size)^3
+	public int side;
+
+	public JPolymer()
+	{
+		size=0;
+	}
+
+	public boolean Parse(String s, int c)
+	{
+		StringTokenizer st=new StringTokenizer(s,"\r\n");
+		size=st.countTokens();
+		if(size>0)
+		{
+			x=new int[size];
+			y=new int[size];
+			z=new int[size];
+			//side=(int)Math.ceil(Math.pow(size,1.0/3.0));
+		}
+		int i=0,xyzmax=0;
+		while(st.hasMoreTokens())
+		{
+			StringTokenizer st2=new StringTokenizer(st.nextToken()," ");
+			if(st2.countTokens()<3)
+				return false;
+			try
+			{
+				// try different projections (xy,zx,yz)
+				if(c==0)
+				{
+					x[i]=Integer.parseInt(st2.nextToken());
+					y[i]=Integer.parseInt(st2.nextToken());
+					z[i]=Integer.parseInt(st2.nextToken());
+				}
+				else if(c==1)
+				{
+					y[i]=Integer.parseInt(st2.nextToken());
+					z[i]=Integer.parseInt(st2.nextToken());
+					x[i]=Integer.parseInt(st2.nextToken());
+				}
+				else if(c==2)
+				{
+					z[i]=Integer.parseInt(st2.nextToken());
+					x[i]=Integer.parseInt(st2.nextToken());
+					y[i]=Integer.parseInt(st2.nextToken());
+				}
+				if(xyzmax<x[i])
+					xyzmax=x[i];
+				if(xyzmax<y[i])
+					xyzmax=y[i];
+				if(xyzmax<z[i])
+					xyzmax=z[i];
+				i++;
+			}
+			catch(Exception ex)
+			{
+				return false;
+			}
+		}
+
+		side=xyzmax+1;	//allow for non-cubic conformation
+
+		return true;
+	}
+
+	// Coordinate file, mapped into memory and parsed in place: same format and
+	// projections as Parse(String,int), but no String is made for any line.
+	// Binary files written by JTrajectoryWriter are read as well.
+	public boolean Read(String file, int c) throws IOException
+	{
+		if(JTrajectoryReader.IsBinary(file))	// first conformation of a binary file
+		{
+			JTrajectoryReader r=new JTrajectoryReader(file);
+			try
+			{
+				return r.Next(this,c);
+			}
+			finally
+			{
+				r.close();
+			}
+		}
+		FileChannel ch=FileChannel.open(Paths.get(file),StandardOpenOption.READ);
+		try
+		{
+			ArrayList<ByteBuffer> pieces=new ArrayList<ByteBuffer>();
+			long pos=0,length=ch.size();
+			while(pos<length)	// windows of the file, each cut after a line break
+			{
+				ByteBuffer b=ch.map(FileChannel.MapMode.READ_ONLY,pos,Math.min(WINDOW,length-pos));
+				int n=b.limit();
+				if(pos+n<length)
+				{
+					while(n>0 && b.get(n-1)!='\n' && b.get(n-1)!='\r')
+						n--;
+					if(n==0)	// line longer than a window
+						return false;
+					b.limit(n);
+				}
+				pieces.add(b);
+				pos+=n;
+			}
+			return Parse(pieces.toArray(new ByteBuffer[pieces.size()]),c);
+		}
+		finally
+		{
+			ch.close();
+		}
+	}
+
+	// ASCII coordinates between the position and limit of b, e.g. a direct buffer
+	public boolean Parse(ByteBuffer b, int c)
+	{
+		return Parse(new ByteBuffer[] {b},c);
+	}
+
+	boolean Parse(ByteBuffer[] pieces, int c)
+	{
+		long lines=0;
+		for(int k=0;k<pieces.length;k++)
+			lines+=Lines(pieces[k]);
+		if(lines>Integer.MAX_VALUE)
+			return false;
+		size=(int)lines;
+		if(size>0)
+		{
+			x=new int[size];
+			y=new int[size];
+			z=new int[size];
+		}
+		int i=0;
+		int[] v=new int[3];
+		for(int k=0;k<pieces.length && i>=0;k++)
+			i=Fill(pieces[k],i,c,v);
+		if(i<0)
+			return false;
+		side=Side();	//allow for non-cubic conformation
+
+		return true;
+	}
+
+	// Number of lines that are not empty
+	static int Lines(ByteBuffer b)
+	{
+		int n=0;
+		boolean inline=false;
+		for(int p=b.position();p<b.limit();p++)
+		{
+			byte ch=b.get(p);
+			boolean eol=(ch=='\n' || ch=='\r');
+			if(!eol && !inline)
+				n++;
+			inline=!eol;
+		}
+		return n;
+	}
+
+	// Parse the lines of b into beads i, i+1, ...; the first three space separated
+	// integers of a line are used.  Returns the next bead, -1 on a bad line.
+	int Fill(ByteBuffer b, int i, int c, int[] v)
+	{
+		int p=b.position(),end=b.limit();
+		while(p<end)
+		{
+			byte ch=b.get(p);
+			if(ch=='\n' || ch=='\r')
+			{
+				p++;
+				continue;
+			}
+			int k=0;
+			while(p<end && (ch=b.get(p))!='\n' && ch!='\r')
+			{
+				if(ch==' ')
+				{
+					p++;
+					continue;
+				}
+				int start=p;
+				while(p<end && (ch=b.get(p))!=' ' && ch!='\n' && ch!='\r')
+					p++;
+				if(k<3)	// same rules as Integer.parseInt
+				{
+					int q=start;
+					boolean negative=false;
+					if(b.get(q)=='-' || b.get(q)=='+')
+						negative=(b.get(q++)=='-');
+					if(q==p)
+						return -1;
+					long value=0;
+					for(;q<p;q++)
+					{
+						int d=b.get(q)-'0';
+						if(d<0 || d>9)
+							return -1;
+						value=10*value+d;
+						if(value>1L+Integer.MAX_VALUE)
+							return -1;
+					}
+					if(negative)
+						value=-value;
+					if(value>Integer.MAX_VALUE)
+						return -1;
+					v[k]=(int)value;
+				}
+				k++;
+			}
+			if(k<3)
+				return -1;
+			Put(i++,v[0],v[1],v[2],c);
+		}
+		return i;
+	}
+
+	// Bead i at file coordinates (a,b,d), in projection c
+	void Put(int i, int a, int b, int d, int c)
+	{
+		// try different projections (xy,zx,yz)
+		if(c==0)
+		{
+			x[i]=a;
+			y[i]=b;
+			z[i]=d;
+		}
+		else if(c==1)
+		{
+			y[i]=a;
+			z[i]=b;
+			x[i]=d;
+		}
+		else if(c==2)
+		{
+			z[i]=a;
+			x[i]=b;
+			y[i]=d;
+		}
+	}
+
+	// Largest coordinate (at least 0) plus one
+	int Side()
+	{
+		int xyzmax=0;
+		for(int i=0;i<size;i++)
+		{
+			if(xyzmax<x[i])
+				xyzmax=x[i];
+			if(xyzmax<y[i])
+				xyzmax=y[i];
+			if(xyzmax<z[i])
+				xyzmax=z[i];
+		}
+		return xyzmax+1;
+	}
+}
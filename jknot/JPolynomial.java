@@ -0,0 +1,199 @@
+package jknot;
+
+import java.math.BigInteger;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Alexander polynomial of the leading m x m block of the Alexander matrix, found
+// from its determinant at enough values of t.  The determinant has degree at most
+// the number of rows with a t term, and its coefficients are bounded by the
+// product of the rows' sums of |c0|+|c1|; these fix the points and the primes.
+// Every (prime, point) pair is one JModular.Residue on the same sparse pattern,
+// run as fork-join tasks; the values are interpolated modulo each prime and the
+// coefficients joined by CRT.
+class JPolynomial extends RecursiveAction
+{
+	int n;
+	int[][] cols;	// pattern of the block, shared by every evaluation
+	long[][] c0,c1;
+	long[] primes;
+	long[][] values;	// determinant mod primes[i] at t=j
+	int from,to;	// evaluations handled by this task, numbered i*points+j
+
+	JPolynomial(int size, int[][] c, long[][] a, long[][] b, long[] p, long[][] v, int f, int t)
+	{
+		n=size;
+		cols=c;
+		c0=a;
+		c1=b;
+		primes=p;
+		values=v;
+		from=f;
+		to=t;
+	}
+
+	// Coefficients of the determinant of the leading m x m block, lowest power first
+	static BigInteger[] Coefficients(JAlexander a, int m)
+	{
+		int[][] cols=new int[m][];
+		long[][] c0=new long[m][],c1=new long[m][];
+		int degree=0;
+		double bits=2;	// log2 of the coefficient bound, plus the sign and some slack
+		for(int r=0;r<m;r++)
+		{
+			int k=0;
+			long sum=0;
+			boolean t=false;
+			for(int e=JAlexander.WIDTH*r;e<JAlexander.WIDTH*r+a.count[r];e++)
+			{
+				if(a.col[e]<m)
+					k++;
+			}
+			cols[r]=new int[k];
+			c0[r]=new long[k];
+			c1[r]=new long[k];
+			k=0;
+			for(int e=JAlexander.WIDTH*r;e<JAlexander.WIDTH*r+a.count[r];e++)
+			{
+				if(a.col[e]>=m)
+					continue;
+				cols[r][k]=a.col[e];
+				c0[r][k]=a.c0[e];
+				c1[r][k++]=a.c1[e];
+				sum+=Math.abs((long)a.c0[e])+Math.abs((long)a.c1[e]);
+				if(a.c1[e]!=0)
+					t=true;
+			}
+			if(sum==0)	// empty row
+				return new BigInteger[] {BigInteger.ZERO};
+			bits+=Math.log(sum)/Math.log(2);
+			if(t)
+				degree++;
+		}
+		int points=degree+1;
+		long[] primes=JModular.Primes((int)(bits/JModular.BITS)+1);
+		long[][] values=new long[primes.length][points];
+		ForkJoinPool.commonPool().invoke(new JPolynomial(m,cols,c0,c1,primes,values,0,primes.length*points));
+
+		long[][] residues=new long[points][primes.length];	// coefficient j mod primes[i]
+		for(int i=0;i<primes.length;i++)
+		{
+			long[] c=Interpolate(values[i],primes[i]);
+			for(int j=0;j<points;j++)
+				residues[j][i]=c[j];
+		}
+		BigInteger[] coefficient=new BigInteger[points];
+		for(int j=0;j<points;j++)
+			coefficient[j]=JModular.Combine(primes,residues[j]);
+		return coefficient;
+	}
+
+	protected void compute()
+	{
+		if(to-from>1)
+		{
+			int mid=(from+to)>>>1;
+			invokeAll(new JPolynomial(n,cols,c0,c1,primes,values,from,mid),new JPolynomial(n,cols,c0,c1,primes,values,mid,to));
+			return;
+		}
+		int points=values[0].length;
+		int i=from/points,t=from%points;
+		long[][] vals=new long[n][];
+		for(int r=0;r<n;r++)
+		{
+			vals[r]=new long[cols[r].length];
+			for(int k=0;k<cols[r].length;k++)
+				vals[r][k]=c0[r][k]+c1[r][k]*t;
+		}
+		values[i][t]=JModular.Residue(n,cols,vals,primes[i]);
+	}
+
+	// Coefficients mod p of the polynomial taking value v[j] at t=j (Newton form)
+	static long[] Interpolate(long[] v, long p)
+	{
+		long q=JModular.Inverse64(p),r2=JModular.Square64(p);
+		int d=v.length-1;
+		long[] dd=v.clone();
+		for(int j=1;j<=d;j++)	// divided differences, points j apart
+		{
+			long inverse=JModular.Inverse(j,p);
+			for(int i=d;i>=j;i--)
+			{
+				long diff=dd[i]-dd[i-1];
+				if(diff<0)
+					diff+=p;
+				dd[i]=JModular.MulMod(diff,inverse,p,q,r2);
+			}
+		}
+		long[] c=new long[d+1];	// Horner on dd[0]+dd[1]t+dd[2]t(t-1)+...
+		for(int i=d;i>=0;i--)
+		{
+			for(int k=d;k>0;k--)	// c=c*(t-i)
+			{
+				long e=c[k-1]-JModular.MulMod(c[k],i,p,q,r2);
+				c[k]=(e<0?e+p:e);
+			}
+			long e=p-JModular.MulMod(c[0],i,p,q,r2);
+			c[0]=(e==p?0:e);
+			c[0]+=dd[i];
+			if(c[0]>=p)
+				c[0]-=p;
+		}
+		return c;
+	}
+
+	// Strip the lowest power of t, give it the sign with positive value at t=1 (or
+	// positive lowest coefficient), and center the powers, so that the polynomial
+	// of a knot comes out symmetric: Delta(t)=Delta(1/t).  Returns the
+	// coefficients; the power of the first one is put in low[0].
+	static BigInteger[] Normalize(BigInteger[] c, int[] low)
+	{
+		int first=0,last=c.length-1;
+		while(first<=last && c[first].signum()==0)
+			first++;
+		while(last>=first && c[last].signum()==0)
+			last--;
+		if(first>last)
+		{
+			low[0]=0;
+			return new BigInteger[] {BigInteger.ZERO};
+		}
+		BigInteger[] a=new BigInteger[last-first+1];
+		BigInteger sum=BigInteger.ZERO;
+		for(int i=0;i<a.length;i++)
+		{
+			a[i]=c[first+i];
+			sum=sum.add(a[i]);
+		}
+		if(sum.signum()<0 || (sum.signum()==0 && a[0].signum()<0))
+		{
+			for(int i=0;i<a.length;i++)
+				a[i]=a[i].negate();
+		}
+		low[0]=-((a.length-1)/2);
+		return a;
+	}
+
+	// e.g. "-t^-1 + 3 - t"
+	static String Format(BigInteger[] a, int low)
+	{
+		StringBuilder s=new StringBuilder();
+		for(int i=0;i<a.length;i++)
+		{
+			BigInteger c=a[i];
+			int e=low+i;
+			if(c.signum()==0 && a.length>1)
+				continue;
+			if(s.length()==0)
+				s.append(c.signum()<0?"-":"");
+			else
+				s.append(c.signum()<0?" - ":" + ");
+			c=c.abs();
+			if(e==0 || !c.equals(BigInteger.ONE))
+				s.append(c);
+			if(e!=0)
+				s.append(e==1?"t":"t^"+e);
+		}
+		return s.toString();
+	}
+}
@@ -0,0 +1,183 @@
+package jknot;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Projection with the fewest crossings after reduction.  The parsed polymer is
+// projected six ways: the three axis orders of the applet's choice and each seen
+// from the other side (the diagram turned over, x and z reversed, which is the
+// same knot).  Every projection is detected, matched and reduced on the fork-join
+// pool, and the invariants are made only for the best one.  No projection can
+// beat one that reduces to no crossings, so once one does, those after it are
+// abandoned at their next check; the ones before it still run, so the same
+// projection wins (the first of the fewest) however the tasks are scheduled.
+// With JEngine.simplify the polymer is simplified once, before it is projected.
+// A projection that fails keeps its analysis with the error, as JEngine keeps
+// any other, and the report says why each projection left out was dropped.
+class JProjections extends RecursiveAction
+{
+	static final String[] NAMES={"x y z","z x y","y z x","x y z turned over","z x y turned over","y z x turned over"};
+	static final int CHECK=1024;	// segments detected between checks for abandoning
+
+	JEngine Engine;
+	JPolymer Polymer;
+	JAnalysis[] Analyses;	// each projection once reduced or failed, null if abandoned
+	AtomicInteger zero;	// first projection with no crossings left, NAMES.length if none yet
+	int from,to;
+
+	JProjections(JEngine e, JPolymer p, JAnalysis[] a, AtomicInteger z, int f, int t)
+	{
+		Engine=e;
+		Polymer=p;
+		Analyses=a;
+		zero=z;
+		from=f;
+		to=t;
+	}
+
+	// Analysis of the best projection of p
+	static JAnalysis Run(JEngine e, JPolymer p)
+	{
+		JAnalysis simplified=null;
+		if(e.simplify)
+		{
+			simplified=new JAnalysis(e,p);
+			if(!simplified.SimplifyPolymer())
+				return simplified;
+		}
+		JAnalysis[] analyses=new JAnalysis[NAMES.length];
+		AtomicInteger zero=new AtomicInteger(NAMES.length);
+		ForkJoinPool.commonPool().invoke(new JProjections(e,(simplified==null?p:simplified.Polymer),analyses,zero,0,NAMES.length));
+
+		int best=-1;
+		StringBuilder counts=new StringBuilder(),dropped=new StringBuilder();
+		for(int k=0;k<NAMES.length;k++)
+		{
+			if(analyses[k]==null)
+			{
+				counts.append(" -");
+				dropped.append("Dropped "+NAMES[k]+": abandoned, one before it has no crossings left\n");
+				continue;
+			}
+			if(analyses[k].Result.error!=null)
+			{
+				counts.append(" -");
+				dropped.append("Dropped "+NAMES[k]+": "+analyses[k].Result.error);
+				continue;
+			}
+			counts.append(" "+Count(analyses[k]));
+			if(best<0 || Count(analyses[k])<Count(analyses[best]))
+				best=k;
+		}
+		JAnalysis a;
+		if(best<0)	// every projection failed; report as the projection given
+		{
+			a=new JAnalysis(e,p);
+			try
+			{
+				a.ParsePolymer();
+			}
+			catch(Exception ex)
+			{
+				a.Fail("Exception:"+ex+"\n");
+			}
+			a.Output.insert(0,dropped);
+			return a;
+		}
+		a=analyses[best];
+		a.Result.projection=best;
+		a.Output.insert(0,"Projection: "+NAMES[best]+" (crossings left in each:"+counts+")\n"+dropped);
+		if(simplified!=null)
+		{
+			a.Result.beads=simplified.Result.beads;
+			a.Output.insert(0,simplified.Output);
+		}
+		if(a.Crossing.size>1)
+			a.Invariants();
+		return a;
+	}
+
+	// Crossings the analysis is left with
+	static int Count(JAnalysis a)
+	{
+		return a.Crossing.size/2;
+	}
+
+	protected void compute()
+	{
+		if(to-from>1)
+		{
+			int mid=(from+to)>>>1;
+			invokeAll(new JProjections(Engine,Polymer,Analyses,zero,from,mid),new JProjections(Engine,Polymer,Analyses,zero,mid,to));
+			return;
+		}
+		int k=from;
+		JAnalysis a=new JAnalysis(Engine,Project(Polymer,k));
+		try
+		{
+			long t=a.Time();
+			if(Engine.simplify)
+				JPolygonDetector.Run(a);
+			else if(Engine.runs)
+			{
+				if(!JRuns.Run(a))
+				{
+					Analyses[k]=a;
+					return;
+				}
+			}
+			else
+			{
+				if(!a.IndexPolymer(a.Polymer.size))
+				{
+					Analyses[k]=a;
+					return;
+				}
+				for(int i=0;i<a.Polymer.size;i++)
+				{
+					if(i%CHECK==0 && zero.get()<k)
+						return;
+					a.Detect(i,a.Crossing);
+				}
+			}
+			a.Stage(JMonitor.DETECT,t);
+			if(zero.get()<k)
+				return;
+			a.SimplifyCrossings();
+		}
+		catch(Exception ex)
+		{
+			a.Fail("Exception:"+ex+"\n");
+		}
+		Analyses[k]=a;
+		if(a.Result.error==null && a.Crossing.size==0)
+		{
+			int z;
+			while(k<(z=zero.get()) && !zero.compareAndSet(z,k))
+				;
+		}
+	}
+
+	// Polymer in projection k of NAMES
+	static JPolymer Project(JPolymer p, int k)
+	{
+		JPolymer q=new JPolymer();
+		int n=p.size,last=p.side-1;
+		q.size=n;
+		q.x=new int[n];
+		q.y=new int[n];
+		q.z=new int[n];
+		for(int i=0;i<n;i++)
+		{
+			q.Put(i,p.x[i],p.y[i],p.z[i],k%3);
+			if(k>=3)
+			{
+				q.x[i]=last-q.x[i];
+				q.z[i]=last-q.z[i];
+			}
+		}
+		q.side=(k>=3?Math.max(p.side,q.Side()):p.side);	// turned over stays in the cube unless p has negative coordinates
+		return q;
+	}
+}
@@ -0,0 +1,271 @@
+package jknot;
+
+// Reidemeister reduction over a doubly linked crossing sequence.  Every row is
+// linked to its neighbours and to its mate, the other crossing of the same two
+// segments, so each move is recognised and applied in constant time instead of
+// searching for partners and shifting the sequence array.  The moves depend on
+// the order they are tried in (R-III swaps crossings, R-II takes the first pair
+// found), so the passes run in the same order and step through the sequence the
+// same way as the array version, and the reduced sequence comes out identical.
+class JReducer
+{
+	static final int NIL=-1;
+
+	JCrossTable table;
+	boolean[] type;
+	int[] next,prev;
+	int[] mate;	// row of the other crossing of the same pair
+	int[] order;	// increasing along the sequence, to tell which of two rows comes first
+	int head;
+	int[] moves=new int[4];	// Reidemeister I, II, III and macro moves made
+
+	JReducer(JCrossTable t)
+	{
+		table=t;
+		type=t.type;
+		next=new int[t.rows];
+		prev=new int[t.rows];
+		mate=new int[t.rows];
+		order=new int[t.rows];
+		head=(t.size>0?t.seq[0]:NIL);
+		for(int i=0;i<t.size;i++)
+		{
+			int r=t.seq[i];
+			prev[r]=(i>0?t.seq[i-1]:NIL);
+			next[r]=(i+1<t.size?t.seq[i+1]:NIL);
+			order[r]=i;
+		}
+	}
+
+	// Link every crossing to its mate.  False if some pair does not occur exactly
+	// twice, or partnerrow disagrees; then the array passes have to be used.
+	boolean Pair()
+	{
+		JPairMap pairs=new JPairMap(table);
+		for(int i=0;i<table.size;i++)
+		{
+			int k=pairs.Other(table,i);
+			if(k<0 || pairs.Other(table,k)!=i)
+				return false;
+			int r=table.seq[i];
+			mate[r]=table.seq[k];
+			if(table.partnerrow[r]!=mate[r])
+				return false;
+		}
+		return true;
+	}
+
+	// Same loop structure as JAnalysis.ReduceUnpaired
+	void Reduce()
+	{
+		boolean found,macrofound=true;
+		while(macrofound)
+		{
+			macrofound=false;
+			found=true;
+			while(found)
+			{
+				RemoveLoops();
+				found=RemoveBigons();
+				if(RemoveTriangles())
+					found=true;
+				if(RemoveFish())
+					macrofound=true;
+			}
+		}
+		Store();
+	}
+
+	// Write the remaining crossings back into the sequence array
+	void Store()
+	{
+		int i=0;
+		for(int r=head;r!=NIL;r=next[r])
+			table.seq[i++]=r;
+		table.size=i;
+	}
+
+	void Unlink(int r)
+	{
+		if(prev[r]!=NIL)
+			next[prev[r]]=next[r];
+		else
+			head=next[r];
+		if(next[r]!=NIL)
+			prev[next[r]]=prev[r];
+	}
+
+	// Exchange r and the crossing after it, along with their order
+	void Swap(int r)
+	{
+		int s=next[r],p=prev[r],n=next[s];
+		if(p!=NIL)
+			next[p]=s;
+		else
+			head=s;
+		if(n!=NIL)
+			prev[n]=r;
+		prev[s]=p;
+		next[s]=r;
+		prev[r]=s;
+		next[r]=n;
+		int o=order[r];
+		order[r]=order[s];
+		order[s]=o;
+	}
+
+	// Crossing k places after r, NIL if the sequence ends first
+	int Skip(int r, int k)
+	{
+		while(k-->0 && r!=NIL)
+			r=next[r];
+		return r;
+	}
+
+	// Reidemeister I: consecutive mates, stepping back one after each removal
+	void RemoveLoops()
+	{
+		int r=head;
+		while(r!=NIL && next[r]!=NIL)
+		{
+			int s=next[r];
+			if(mate[r]==s)
+			{
+				int p=prev[r];
+				Unlink(r);
+				Unlink(s);
+				moves[0]++;
+				r=(p!=NIL?p:head);
+			}
+			else
+			{
+				r=s;
+			}
+		}
+	}
+
+	// Reidemeister II: two crossings of the same type whose mates sit next to each
+	// other further on
+	boolean RemoveBigons()
+	{
+		boolean found=false;
+		int r1=head;
+		while(r1!=NIL && next[r1]!=NIL)
+		{
+			int r2=next[r1],m1=mate[r1],m2=mate[r2];
+			if(type[r1]==type[r2] && order[m1]>order[r2] && order[m2]>order[r2] && (next[m1]==m2 || next[m2]==m1))
+			{
+				int last=(next[m1]==m2?m2:m1);
+				boolean tail=(Skip(next[last],3)==NIL);	// the array version steps on once more here
+				int p=prev[r1];
+				Unlink(m1);
+				Unlink(m2);
+				Unlink(r1);
+				Unlink(r2);
+				moves[1]++;
+				r1=(p!=NIL?p:head);
+				if(tail)
+					r1=Skip(r1,1);
+				found=true;
+			}
+			else
+			{
+				r1=r2;
+			}
+		}
+		return found;
+	}
+
+	// Reidemeister III: r1 and r4 are mates with r2 and r3 between them; swap the
+	// mates of r2 and r3 if they sit next to each other outside r1..r4
+	boolean RemoveTriangles()
+	{
+		boolean found=false;
+		int r1=head;
+		while(Skip(r1,3)!=NIL)
+		{
+			int r2=next[r1],r3=next[r2],r4=next[r3];
+			if(mate[r1]==r4 && type[r1]==type[r2] && type[r1]!=type[r3])
+			{
+				int m2=mate[r2],m3=mate[r3];
+				boolean outside=(order[m2]<order[r1] && order[m3]<order[r1]) || (order[m2]>order[r4] && order[m3]>order[r4]);
+				if(outside && (next[m2]==m3 || next[m3]==m2))
+				{
+					int first=(next[m2]==m3?m2:m3);
+					Swap(first);
+					boolean tail=(Skip(next[first],1)==NIL);
+					Unlink(r1);
+					Unlink(r4);
+					moves[2]++;
+					r1=(tail?r3:r2);
+					found=true;
+					continue;
+				}
+			}
+			r1=next[r1];
+		}
+		return found;
+	}
+
+	// 'Macro' move: a streak of crossings of one type closed off by the mate of
+	// the crossing before it is removed along with the mates of the streak
+	boolean RemoveFish()
+	{
+		boolean found=false;
+		boolean known=false;
+		int end=NIL;	// first crossing after the streak of r2, NIL if it runs to the end
+		int r1=head;
+		while(Skip(r1,5)!=NIL)
+		{
+			int r2=next[r1],m=mate[r1];
+			if(!known || (end!=NIL && order[r2]>=order[end]))
+			{
+				for(end=next[r2];end!=NIL && type[end]==type[r2];end=next[end])
+					;
+				known=true;
+			}
+			boolean fish=order[m]>order[r2] && (end==NIL || order[m]<=order[end]);
+			int j=(fish?m:end);	// where the array version's scan stops
+			if(j==NIL)
+			{
+				r1=r2;
+				continue;
+			}
+			int s=r1,k;
+			for(k=0;k<5 && s!=j;k++)
+				s=next[s];
+			if(k<5)	// j within 5 of r1
+			{
+				r1=j;
+			}
+			else if(fish)
+			{
+				int before=0;	// mates removed ahead of r1 shift its position back
+				for(s=r2;s!=m;)
+				{
+					int n=next[s],q=mate[s];
+					Unlink(s);
+					if(order[q]<order[r1])
+					{
+						Unlink(q);
+						before++;
+					}
+					else if(order[q]>order[m])
+					{
+						Unlink(q);
+					}
+					s=n;
+				}
+				r1=Skip(r1,before);
+				moves[3]++;
+				known=false;
+				found=true;
+			}
+			else
+			{
+				r1=r2;
+			}
+		}
+		return found;
+	}
+}
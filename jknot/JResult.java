@@ -0,0 +1,32 @@
+package jknot;
+
+import java.math.BigInteger;
+
+// Outcome of one JEngine run
+public class JResult
+{
+	public int crossings;	// number of crossings in projection
+	public int reducedcrossings;	// number of crossings after reduction, -1 if not reduced
+	public int beads;	// beads left by triangle elimination, -1 if not simplified; see JEngine.simplify
+	public int projection;	// projection analyzed, 0 for the one given; see JEngine.bestprojection
+	public int[] dowker;	// Dowker code, negative where the odd crossing is an overpass
+	public int[] canonicaldowker;	// same code in canonical form (JDowker), null if not a valid code
+	public String alexander;	// Alexander matrix, one row per line
+	public int writhe;	// writhing number
+	public int t;	// value of t used for the determinant
+	public BigInteger determinant;	// determinant of n-1 minor, null if not evaluated
+	public int[] tvalues;	// values of t asked for in JEngine.tvalues
+	public BigInteger[] determinants;	// determinant of n-1 minor at each of tvalues
+	public BigInteger[] polynomial;	// normalized Alexander polynomial, lowest power first, null if not evaluated
+	public int lowestpower;	// power of t of polynomial[0]
+	public String error;	// first error encountered, null if none
+	public String output;	// text report, as shown by the applet
+	public JCrossTable crossing;	// final crossing sequence
+	public JPolymer polymer;	// polymer the crossings lie on, as projected; null for a Gauss code
+
+	JResult()
+	{
+		reducedcrossings=-1;
+		beads=-1;
+	}
+}
@@ -0,0 +1,40 @@
+package jknot;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Flight Recorder event for a whole run, committed by JMonitor when it finishes
+@Name("jknot.Run")
+@Label("Knot Analysis")
+@Category("JKnot")
+class JRunEvent extends Event
+{
+	@Label("Crossings")
+	int crossings;
+
+	@Label("Reduced Crossings")
+	int reduced;
+
+	@Label("Reidemeister I")
+	int loops;
+
+	@Label("Reidemeister II")
+	int bigons;
+
+	@Label("Reidemeister III")
+	int triangles;
+
+	@Label("Macro Moves")
+	int macro;
+
+	@Label("Matrix Dimension")
+	int matrix;
+
+	@Label("Determinant Bits")
+	int bits;
+
+	@Label("Error")
+	boolean error;
+}
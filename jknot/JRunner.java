@@ -0,0 +1,384 @@
+package jknot;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Analysis of a stream of conformations on the fork-join pool.  Inputs are taken
+// in blocks; within a block one worker task per pool thread keeps pulling the
+// largest input not yet started, so a few huge chains start early instead of
+// holding up the end.  The next block is started before the previous one is
+// waited for, so its workers fill the threads that the last inputs leave idle.
+// Usage: java jknot.JRunner [-t value] [-c projection] [-p] [-s] [-r] [-k
+// megabytes] [-m] [-u] [-g] files...; a binary file gives all its conformations,
+// -g reads the files as one Gauss code a line, -p analyzes the projection with
+// the fewest crossings (JProjections), -s deletes beads by triangle elimination
+// before projecting (JSimplifier), -r detects crossings on straight runs
+// (JRuns), -k caches invariants of repeated diagrams (JCache), -m publishes stage
+// times over JMX and JFR (JMonitor), -u prints results as they finish instead of
+// in input order.  A file that cannot be read, or a trajectory cut short, gives
+// one error line and the files after it are still analyzed.
+public class JRunner extends RecursiveAction
+{
+	static final int BLOCK=4096;	// most inputs in a block
+	static final long WEIGHT=1L<<24;	// most total weight in a block
+
+	// Receives every result, called by one thread at a time
+	public interface Sink
+	{
+		void Result(JInput in, JResult r);
+	}
+
+	JEngine Engine;
+	JInput[] Inputs;
+	JResult[] Results;	// by input, until given to the sink in order
+	Integer[] order;	// inputs by decreasing weight
+	AtomicInteger next;	// next position in order to start
+	Sink out;
+	boolean ordered;	// results kept for Emit, else given to out as they finish
+	int from,to;	// workers represented by this task
+
+	JRunner(JEngine e, JInput[] in, JResult[] r, Integer[] o, AtomicInteger n, Sink s, boolean ord, int f, int t)
+	{
+		Engine=e;
+		Inputs=in;
+		Results=r;
+		order=o;
+		next=n;
+		out=s;
+		ordered=ord;
+		from=f;
+		to=t;
+	}
+
+	// Analyze every input; results go to out in input order, or as they finish
+	public static void Run(JEngine e, Iterator<JInput> inputs, Sink out, boolean ordered)
+	{
+		ForkJoinPool pool=ForkJoinPool.commonPool();
+		JRunner previous=null;
+		while(true)
+		{
+			JRunner task=Block(e,inputs,out,ordered,pool.getParallelism());
+			if(task!=null)
+				pool.execute(task);
+			if(previous!=null)
+			{
+				previous.join();
+				previous.Emit();
+			}
+			if(task==null)
+				break;
+			previous=task;
+		}
+	}
+
+	// Next block of inputs, null at the end
+	static JRunner Block(JEngine e, Iterator<JInput> inputs, Sink out, boolean ordered, int workers)
+	{
+		ArrayList<JInput> block=new ArrayList<JInput>();
+		long weight=0;
+		while(block.size()<BLOCK && weight<WEIGHT && inputs.hasNext())
+		{
+			JInput in=inputs.next();
+			block.add(in);
+			weight+=in.weight;
+		}
+		if(block.isEmpty())
+			return null;
+		final JInput[] in=block.toArray(new JInput[block.size()]);
+		Integer[] order=new Integer[in.length];
+		for(int i=0;i<in.length;i++)
+			order[i]=i;
+		Arrays.sort(order,new Comparator<Integer>()
+		{
+			public int compare(Integer a, Integer b)
+			{
+				return Long.compare(in[b].weight,in[a].weight);
+			}
+		});
+		return new JRunner(e,in,new JResult[in.length],order,new AtomicInteger(),out,ordered,0,Math.min(workers,in.length));
+	}
+
+	protected void compute()
+	{
+		if(to-from>1)
+		{
+			int mid=(from+to)>>>1;
+			invokeAll(new JRunner(Engine,Inputs,Results,order,next,out,ordered,from,mid),new JRunner(Engine,Inputs,Results,order,next,out,ordered,mid,to));
+			return;
+		}
+		int k;
+		while((k=next.getAndIncrement())<order.length)
+		{
+			int i=order[k];
+			JResult r=Inputs[i].Analyze(Engine);
+			if(ordered)
+			{
+				Results[i]=r;
+			}
+			else
+			{
+				synchronized(out)
+				{
+					out.Result(Inputs[i],r);
+				}
+			}
+		}
+	}
+
+	// Hand the results of an ordered block to the sink
+	void Emit()
+	{
+		if(!ordered)
+			return;
+		for(int i=0;i<Inputs.length;i++)
+		{
+			synchronized(out)
+			{
+				out.Result(Inputs[i],Results[i]);
+			}
+			Results[i]=null;
+		}
+	}
+
+	// Every conformation of a binary file, ids file#0, file#1, ...; the file is
+	// opened when the first one is asked for, as JInput.File reads its file.  A
+	// file that cannot be read, or ends inside a conformation, gives one input
+	// reporting the error under the id of the next frame, and no more.
+	public static Iterator<JInput> Frames(final String file, final int c)
+	{
+		return new Iterator<JInput>()
+		{
+			JTrajectoryReader reader;
+			JInput ahead;
+			int frame=0;
+			boolean done=false;
+
+			public boolean hasNext()
+			{
+				if(ahead==null && !done)
+				{
+					JPolymer p=new JPolymer();
+					try
+					{
+						if(reader==null)
+							reader=new JTrajectoryReader(file);
+						if(reader.Next(p,c))
+						{
+							ahead=JInput.Polymer(file+"#"+(frame++),p);
+						}
+						else
+						{
+							done=true;
+							reader.close();
+						}
+					}
+					catch(IOException ex)
+					{
+						ahead=JInput.Error(file+"#"+frame,"Error reading "+file+":\n "+ex+"\n");
+						done=true;
+						try
+						{
+							if(reader!=null)
+								reader.close();
+						}
+						catch(IOException ignored)
+						{
+						}
+					}
+				}
+				return ahead!=null;
+			}
+
+			public JInput next()
+			{
+				if(!hasNext())
+					throw new NoSuchElementException();
+				JInput in=ahead;
+				ahead=null;
+				return in;
+			}
+		};
+	}
+
+	// One Gauss code a line, ids file:line; the file is opened when the first is
+	// asked for, and one that cannot be read gives an input reporting the error
+	public static Iterator<JInput> Codes(final String file)
+	{
+		return new Iterator<JInput>()
+		{
+			BufferedReader reader;
+			JInput ahead;
+			int line=0;
+			boolean done=false;
+
+			public boolean hasNext()
+			{
+				while(ahead==null && !done)
+				{
+					try
+					{
+						if(reader==null)
+							reader=new BufferedReader(new FileReader(file));
+						String s=reader.readLine();
+						line++;
+						if(s==null)
+						{
+							done=true;
+							reader.close();
+						}
+						else if(s.trim().length()>0)
+						{
+							ahead=JInput.Gauss(file+":"+line,s.trim());
+						}
+					}
+					catch(IOException ex)
+					{
+						ahead=JInput.Error(file+":"+(line+1),"Error reading "+file+":\n "+ex+"\n");
+						done=true;
+						try
+						{
+							if(reader!=null)
+								reader.close();
+						}
+						catch(IOException ignored)
+						{
+						}
+					}
+				}
+				return ahead!=null;
+			}
+
+			public JInput next()
+			{
+				if(!hasNext())
+					throw new NoSuchElementException();
+				JInput in=ahead;
+				ahead=null;
+				return in;
+			}
+		};
+	}
+
+	// Conformations of a coordinate file, binary or text as its first bytes say
+	// when it is reached; one that cannot be opened is left to JInput.File to report
+	public static Iterator<JInput> Coordinates(final String file, final int c)
+	{
+		return new Iterator<JInput>()
+		{
+			Iterator<JInput> inputs;
+
+			public boolean hasNext()
+			{
+				if(inputs==null)
+				{
+					boolean binary=false;
+					try
+					{
+						binary=JTrajectoryReader.IsBinary(file);
+					}
+					catch(IOException ex)
+					{
+					}
+					inputs=(binary?Frames(file,c):Collections.singletonList(JInput.File(file,file,c)).iterator());
+				}
+				return inputs.hasNext();
+			}
+
+			public JInput next()
+			{
+				if(!hasNext())
+					throw new NoSuchElementException();
+				return inputs.next();
+			}
+		};
+	}
+
+	// The inputs of every source, one source after another
+	public static Iterator<JInput> Concat(final Iterator<Iterator<JInput>> sources)
+	{
+		return new Iterator<JInput>()
+		{
+			Iterator<JInput> current;
+
+			public boolean hasNext()
+			{
+				while((current==null || !current.hasNext()) && sources.hasNext())
+					current=sources.next();
+				return current!=null && current.hasNext();
+			}
+
+			public JInput next()
+			{
+				if(!hasNext())
+					throw new NoSuchElementException();
+				return current.next();
+			}
+		};
+	}
+
+	// Determinant column: 1 for a diagram with no crossings left, which has no
+	// matrix, and empty where none was evaluated
+	static String Determinant(JResult r)
+	{
+		if(r.determinant!=null)
+			return r.determinant.toString();
+		return (r.crossing!=null && r.crossing.size==0?"1":"");
+	}
+
+	public static void main(String[] args)
+	{
+		JEngine e=new JEngine();
+		int c=0;
+		boolean ordered=true,gauss=false;
+		ArrayList<Iterator<JInput>> sources=new ArrayList<Iterator<JInput>>();
+		for(int a=0;a<args.length;a++)
+		{
+			if(args[a].equals("-t"))
+				e.tvar=Integer.parseInt(args[++a]);
+			else if(args[a].equals("-c"))
+				c=Integer.parseInt(args[++a]);
+			else if(args[a].equals("-k"))
+				e.cache=new JCache(Long.parseLong(args[++a])<<20);
+			else if(args[a].equals("-p"))
+				e.bestprojection=true;
+			else if(args[a].equals("-s"))
+				e.simplify=true;
+			else if(args[a].equals("-r"))
+				e.runs=true;
+			else if(args[a].equals("-m"))
+				e.monitor=JMonitor.Register();
+			else if(args[a].equals("-u"))
+				ordered=false;
+			else if(args[a].equals("-g"))
+				gauss=true;
+			else if(gauss)
+				sources.add(Codes(args[a]));
+			else
+				sources.add(Coordinates(args[a],c));
+		}
+		Iterator<JInput> inputs=Concat(sources.iterator());
+		System.out.println("id\tcrossings\treduced\tdeterminant");
+		Run(e,inputs,new Sink()
+		{
+			public void Result(JInput in, JResult r)
+			{
+				if(r.error!=null)
+					System.out.println(in.id+"\t"+r.error.trim().replace('\n',' '));
+				else
+					System.out.println(in.id+"\t"+r.crossings+"\t"+r.reducedcrossings+"\t"+Determinant(r));
+			}
+		},ordered);
+		if(e.cache!=null)
+			System.err.println("cache hits "+e.cache.Hits()+", misses "+e.cache.Misses()+", evictions "+e.cache.Evictions());
+	}
+}
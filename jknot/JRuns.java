@@ -0,0 +1,222 @@
+package jknot;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+
+// Crossing detection on the straight runs of a lattice polymer.  Consecutive
+// steps in the same direction are merged into one run; runs along x are swept
+// against runs along y in order of row, with the y runs that span the row kept
+// in a tree by column.  Steps along z never cross in the projection.  A crossing
+// of two runs is put back on the unit segments it lies on, and those are
+// ordered as the lattice scan orders them, so segment numbers, coordinates and
+// the sequence are exactly what IndexPolymer and DetectCrossings give.  The
+// sweep does work in proportion to the corners of the polymer and the
+// crossings, not to its beads, and no lattice index is built.  A polymer that
+// visits a site twice is handed to the lattice scan, so it fails or passes
+// just as it does there.
+class JRuns
+{
+	static final int LIMIT=JLattice.LIMIT;	// offset that keeps packed coordinates positive
+
+	JPolymer Polymer;
+	int n;
+	long[] sites;	// packed site of each bead, sorted once checked
+
+	int runs;
+	int[] first,steps;	// first segment of each run and its number of steps
+	char[] dir;	// 'F','B','L','R','U','D'
+
+	JPasses Passes=new JPasses();	// crossings found, on unit segments
+
+	JRuns(JPolymer p)
+	{
+		Polymer=p;
+		n=p.size;
+		first=new int[16];
+		steps=new int[16];
+		dir=new char[16];
+	}
+
+	// Crossings of a.Polymer into a.Crossing, as ParsePolymer finds them; false
+	// if a segment is not a lattice step
+	static boolean Run(JAnalysis a)
+	{
+		JRuns r=new JRuns(a.Polymer);
+		if(!r.Merge(a))
+			return false;
+		if(!r.SelfAvoiding())
+		{
+			if(!a.IndexPolymer(r.n))
+				return false;
+			a.DetectCrossings();
+			return true;
+		}
+		r.Sweep();
+		r.Sequence(a.Crossing);
+		return true;
+	}
+
+	// Runs of steps in the same direction; a run never wraps past the last bead
+	boolean Merge(JAnalysis a)
+	{
+		JPolymer p=Polymer;
+		sites=new long[n];
+		for(int i=0;i<n;i++)
+		{
+			sites[i]=JLattice.Pack(p.x[i],p.y[i],p.z[i]);	// throws for coordinates out of range, as IndexPolymer does
+			int j=(i==n-1?0:i+1);
+			char d=a.SegDir(p.x[i],p.y[i],p.z[i],p.x[j],p.y[j],p.z[j]);
+			if(d=='N' || Math.abs(p.x[j]-p.x[i])+Math.abs(p.y[j]-p.y[i])+Math.abs(p.z[j]-p.z[i])!=1)
+			{
+				a.Fail("Error parsing polymer:\n Incorrect segment encountered\n");
+				return false;
+			}
+			if(runs>0 && dir[runs-1]==d)
+			{
+				steps[runs-1]++;
+				continue;
+			}
+			if(runs==first.length)
+			{
+				first=Arrays.copyOf(first,2*runs);
+				steps=Arrays.copyOf(steps,2*runs);
+				dir=Arrays.copyOf(dir,2*runs);
+			}
+			first[runs]=i;
+			steps[runs]=1;
+			dir[runs++]=d;
+		}
+		return true;
+	}
+
+	// No two beads at the same site
+	boolean SelfAvoiding()
+	{
+		Arrays.sort(sites);
+		for(int i=1;i<n;i++)
+			if(sites[i]==sites[i-1])
+				return false;
+		return true;
+	}
+
+	// Least coordinate along the run's own axis (x for runs along x, y for runs along y)
+	int Low(int k)
+	{
+		int b=first[k];
+		if(dir[k]=='F')
+			return Polymer.x[b];
+		if(dir[k]=='B')
+			return Polymer.x[b]-steps[k];
+		if(dir[k]=='R')
+			return Polymer.y[b];
+		return Polymer.y[b]-steps[k];
+	}
+
+	// Every crossing of a run along x with a run along y
+	void Sweep()
+	{
+		int xs=0,ys=0;
+		long[] rows=new long[runs],starts=new long[runs],ends=new long[runs];
+		for(int k=0;k<runs;k++)
+		{
+			int b=first[k];
+			if(dir[k]=='F' || dir[k]=='B')
+				rows[xs++]=Pack(Polymer.y[b],k);
+			else if(dir[k]=='L' || dir[k]=='R')
+			{
+				starts[ys]=Pack(Low(k),k);
+				ends[ys++]=Pack(Low(k)+steps[k],k);
+			}
+		}
+		rows=Arrays.copyOf(rows,xs);
+		starts=Arrays.copyOf(starts,ys);
+		ends=Arrays.copyOf(ends,ys);
+		Arrays.sort(rows);
+		Arrays.sort(starts);
+		Arrays.sort(ends);
+
+		TreeSet<Long> active=new TreeSet<Long>();	// y runs spanning the row, by column
+		int s=0,e=0;
+		for(int i=0;i<xs;i++)
+		{
+			int k=(int)rows[i],r=(int)(rows[i]>>>32)-LIMIT;
+			for(;s<ys && (int)(starts[s]>>>32)-LIMIT<=r;s++)
+			{
+				int l=(int)starts[s];
+				active.add(Pack(Polymer.x[first[l]],l));
+			}
+			for(;e<ys && (int)(ends[e]>>>32)-LIMIT<r;e++)
+			{
+				int l=(int)ends[e];
+				active.remove(Pack(Polymer.x[first[l]],l));
+			}
+			int lo=Low(k),hi=lo+steps[k];
+			for(long c:active.subSet(Pack(lo,0),Pack(hi+1,0)))
+				Cross(k,(int)c);
+		}
+	}
+
+	// Coordinate c, offset to be positive, over run or run number k
+	static long Pack(int c, int k)
+	{
+		return ((long)(c+LIMIT)<<32)|k;
+	}
+
+	// Crossing of run k along x (row r, height zx) with run l along y (column c,
+	// height zy), if any.  A step along x from u to u+1 and one along y from v
+	// to v+1 cross when the one along y is higher, c==u and r==v+1, or lower,
+	// c==u+1 and r==v; at the same height they never cross.
+	void Cross(int k, int l)
+	{
+		int a=first[k],b=first[l];
+		int r=Polymer.y[a],zx=Polymer.z[a];
+		int c=Polymer.x[b],zy=Polymer.z[b];
+		int xlo=Low(k),xhi=xlo+steps[k],ylo=Low(l),yhi=ylo+steps[l];
+		int u,v;
+		if(zy>zx && c<xhi && r>ylo)
+		{
+			u=c;
+			v=r-1;
+		}
+		else if(zy<zx && c>xlo && r<yhi)
+		{
+			u=c-1;
+			v=r;
+		}
+		else
+			return;
+		double pside=Polymer.side;
+		int xseg=a+(dir[k]=='F'?u-xlo:xhi-1-u);
+		int yseg=b+(dir[l]=='R'?v-ylo:yhi-1-v);
+		long xkey=(dir[k]=='F'?1:-1)*Pack(c,zy+LIMIT);	// by column, then height
+		long ykey=(dir[l]=='R'?1:-1)*Pack(r,zx+LIMIT);
+		if(zx>zy)
+			Passes.Add(xseg,xkey,yseg,ykey,c+zy/pside,r+zx/pside);
+		else
+			Passes.Add(yseg,ykey,xseg,xkey,c+zy/pside,r+zx/pside);
+	}
+
+	// Both passes of every crossing, segment by segment in order along each
+	void Sequence(JCrossTable out)
+	{
+		out.Reserve(2*Passes.found);
+		for(int v:Passes.Order(n))
+			Add(out,v);
+	}
+
+	// Direction of unit segment i in the plane: 'F','B' along x, 'R','L' along y
+	char Dir(int i)
+	{
+		int j=(i+1)%n;
+		if(Polymer.x[j]!=Polymer.x[i])
+			return (Polymer.x[j]>Polymer.x[i]?'F':'B');
+		return (Polymer.y[j]>Polymer.y[i]?'R':'L');
+	}
+
+	void Add(JCrossTable out, int v)
+	{
+		int f=v>>1,o=Passes.over[f],u=Passes.under[f];
+		char d=Dir(o);
+		out.Add((v&1)==0,o,u,Passes.x[f],Passes.y[f],d=='R' || d=='L',d,Dir(u));
+	}
+}
@@ -0,0 +1,270 @@
+package jknot;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.StringTokenizer;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+// Local analysis service on the JDK's HTTP server, so a simulation can ask for
+// invariants without starting a JVM per conformation.  Every exchange runs on a
+// virtual thread; determinant work takes a permit of a fair semaphore with one
+// permit per processor, so any number of waiting requests queue in arrival order
+// and a large matrix is never overtaken indefinitely by small ones.  Request
+// bodies, at most MAXBODY bytes, are read and parsed under a second semaphore of
+// as many permits, so only that many are in memory at once.  Stage times and
+// counts of all requests are published over JMX and JFR by JMonitor.
+//
+//   POST /gauss     body: Gauss code, e.g. a+1,b+2,a+3,b+1,a+2,b+3
+//   POST /polymer   body: coordinate lines, or a binary conformation (JTrajectoryWriter)
+//   GET  /stats     hits, misses and evictions of the shared JCache
+//
+// Query parameters: t (default -1), reduce (1/0), determinant (1/0), c (0, 1 or
+// 2, projection of a polymer), best (1 for the projection with fewest
+// crossings), simplify (1 for triangle elimination before projecting), runs (1
+// to detect crossings on straight runs), report (1 to append the full text
+// report).  The answer is plain text, one "name: value" line each.  Usage: java
+// jknot.JService [port] [permits]
+public class JService implements HttpHandler
+{
+	static final int PORT=8642;
+	static final int MAXBODY=1<<26;	// bytes of a request body; one is read and parsed per permit of bodies
+	static final long CACHE=64L<<20;	// bytes of results kept for repeated diagrams
+
+	Semaphore limit;
+	Semaphore bodies;	// held while a body is read and parsed, so only so many are in memory at once
+	JCache cache;
+	JMonitor monitor;
+	String path;	// endpoint this handler serves
+
+	JService(Semaphore s, Semaphore b, JCache c, JMonitor m, String p)
+	{
+		limit=s;
+		bodies=b;
+		cache=c;
+		monitor=m;
+		path=p;
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		int port=(args.length>0?Integer.parseInt(args[0]):PORT);
+		int permits=(args.length>1?Integer.parseInt(args[1]):Runtime.getRuntime().availableProcessors());
+		HttpServer server=Start(port,permits);
+		System.out.println("JKnot service on http://"+server.getAddress().getHostString()+":"+server.getAddress().getPort()+"/");
+	}
+
+	// Serve on the loopback interface; port 0 picks a free one
+	public static HttpServer Start(int port, int permits) throws IOException
+	{
+		Semaphore limit=new Semaphore(permits,true);
+		Semaphore bodies=new Semaphore(permits,true);
+		JCache cache=new JCache(CACHE);
+		JMonitor monitor=JMonitor.Register();
+		HttpServer server=HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(),port),0);
+		server.createContext("/gauss",new JService(limit,bodies,cache,monitor,"/gauss"));
+		server.createContext("/polymer",new JService(limit,bodies,cache,monitor,"/polymer"));
+		server.createContext("/stats",new JService(limit,bodies,cache,monitor,"/stats"));
+		server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		server.start();
+		return server;
+	}
+
+	public void handle(HttpExchange x) throws IOException
+	{
+		try
+		{
+			if(path.equals("/stats"))
+			{
+				Reply(x,200,"hits: "+cache.Hits()+"\nmisses: "+cache.Misses()+"\nevictions: "+cache.Evictions()+"\nentries: "+cache.Count()+"\nbytes: "+cache.Weight()+"\n");
+				return;
+			}
+			if(!x.getRequestMethod().equals("POST"))
+			{
+				Reply(x,405,"error: use POST\n");
+				return;
+			}
+			HashMap<String,String> q=Query(x.getRequestURI().getRawQuery());
+			JEngine e=new JEngine(!"0".equals(q.get("reduce")),!"0".equals(q.get("determinant")),Integer.parseInt(Value(q,"t","-1")));
+			e.limit=limit;
+			e.cache=cache;
+			e.monitor=monitor;
+			e.bestprojection="1".equals(q.get("best"));
+			e.simplify="1".equals(q.get("simplify"));
+			e.runs="1".equals(q.get("runs"));
+			int c=Integer.parseInt(Value(q,"c","0"));
+			if(c<0 || c>2)
+			{
+				Reply(x,400,"error: c must be 0, 1 or 2\n");
+				return;
+			}
+			String length=x.getRequestHeaders().getFirst("Content-Length");
+			if(length!=null && Long.parseLong(length)>MAXBODY)
+			{
+				Reply(x,413,"error: body too large\n");
+				return;
+			}
+			String code=null;
+			JPolymer p=null;
+			bodies.acquire();
+			try
+			{
+				byte[] body=Body(x.getRequestBody());
+				if(body==null)
+				{
+					Reply(x,413,"error: body too large\n");
+					return;
+				}
+				if(path.equals("/gauss"))
+					code=new String(body,StandardCharsets.US_ASCII);
+				else
+				{
+					long t=System.nanoTime();
+					p=Polymer(body,c);
+					monitor.Stage(JMonitor.PARSE,t,0);
+					if(p==null)
+					{
+						Reply(x,400,"error: bad coordinates\n");
+						return;
+					}
+				}
+			}
+			finally
+			{
+				bodies.release();
+			}
+			JResult r=(code!=null?e.AnalyzeGauss(code):e.Analyze(p));
+			Reply(x,200,Format(r,"1".equals(q.get("report")),e.bestprojection && path.equals("/polymer")));
+		}
+		catch(NumberFormatException ex)
+		{
+			Error(x,400,"error: "+ex.getMessage()+"\n");
+		}
+		catch(IOException ex)	// body cut short, or the client gone while replying
+		{
+			Error(x,400,"error: "+ex+"\n");
+		}
+		catch(InterruptedException ex)
+		{
+			Error(x,503,"error: interrupted\n");
+		}
+		catch(RuntimeException ex)
+		{
+			Error(x,500,"error: "+ex+"\n");
+		}
+		finally
+		{
+			x.close();
+		}
+	}
+
+	// Coordinate text or a binary conformation, null if unreadable
+	static JPolymer Polymer(byte[] body, int c)
+	{
+		JPolymer p=new JPolymer();
+		if(body.length>=4 && ByteBuffer.wrap(body).getInt(0)==JTrajectoryWriter.MAGIC)
+		{
+			if(body.length<8)
+				return null;
+			int n=ByteBuffer.wrap(body).getInt(4);	// beads the body must hold: magic, count, first bead, 3 bits a step
+			if(n<0 || (n>0 && 20+(3L*(n-1)+7)/8>body.length))
+				return null;
+			try
+			{
+				JTrajectoryReader r=new JTrajectoryReader(new ByteArrayInputStream(body));
+				return (r.Next(p,c)?p:null);
+			}
+			catch(IOException ex)
+			{
+				return null;
+			}
+		}
+		return (p.Parse(ByteBuffer.wrap(body),c)?p:null);
+	}
+
+	static String Format(JResult r, boolean report, boolean best)
+	{
+		StringBuilder s=new StringBuilder();
+		if(r.error!=null)
+			s.append("error: "+r.error.trim().replace('\n',' ')+"\n");
+		if(best)
+			s.append("projection: "+JProjections.NAMES[r.projection]+"\n");
+		if(r.beads>=0)
+			s.append("beads: "+r.beads+"\n");
+		s.append("crossings: "+r.crossings+"\n");
+		s.append("reduced: "+r.reducedcrossings+"\n");
+		if(r.dowker!=null)
+		{
+			s.append("dowker:");
+			for(int i=0;i<r.dowker.length;i++)
+				s.append(" "+r.dowker[i]);
+			s.append("\n");
+		}
+		s.append("writhe: "+r.writhe+"\n");
+		if(r.determinant!=null)
+			s.append("determinant: "+r.determinant+" (t="+r.t+")\n");
+		if(report)
+			s.append("\n"+r.output);
+		return s.toString();
+	}
+
+	static HashMap<String,String> Query(String raw)
+	{
+		HashMap<String,String> q=new HashMap<String,String>();
+		if(raw==null)
+			return q;
+		StringTokenizer st=new StringTokenizer(raw,"&");
+		while(st.hasMoreTokens())
+		{
+			String s=st.nextToken();
+			int k=s.indexOf('=');
+			if(k>0)
+				q.put(URLDecoder.decode(s.substring(0,k),StandardCharsets.UTF_8),URLDecoder.decode(s.substring(k+1),StandardCharsets.UTF_8));
+		}
+		return q;
+	}
+
+	static String Value(HashMap<String,String> q, String key, String def)
+	{
+		String v=q.get(key);
+		return (v==null?def:v);
+	}
+
+	// Whole request body, null if longer than MAXBODY
+	static byte[] Body(InputStream in) throws IOException
+	{
+		byte[] b=in.readNBytes(MAXBODY+1);
+		return (b.length>MAXBODY?null:b);
+	}
+
+	// Reply with an error, unless a reply was already begun: its headers are
+	// sent, so the failure is only logged
+	static void Error(HttpExchange x, int status, String text) throws IOException
+	{
+		if(x.getResponseCode()<0)
+			Reply(x,status,text);
+		else
+			System.err.println(x.getRequestMethod()+" "+x.getRequestURI()+": "+text.trim());
+	}
+
+	static void Reply(HttpExchange x, int status, String text) throws IOException
+	{
+		byte[] b=text.getBytes(StandardCharsets.US_ASCII);
+		x.getResponseHeaders().set("Content-Type","text/plain; charset=us-ascii");
+		x.sendResponseHeaders(status,b.length);
+		OutputStream o=x.getResponseBody();
+		o.write(b);
+		o.close();
+	}
+}
@@ -0,0 +1,419 @@
+package jknot;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Triangle elimination (Koniaris and Muthukumar) on the polymer in 3D, before it
+// is projected.  A bead is deleted, its neighbours joined by a straight segment,
+// when no other segment meets the closed triangle the three make; the polygon
+// is then moved across the triangle, which leaves the knot as it was.  Each
+// round takes every other bead of the polygon as it stands, so no two of them
+// are neighbours, tests them against a grid of the segments (on the fork-join
+// pool for large polymers when the engine is parallel), and deletes the ones
+// that pass in order; a bead whose triangle meets a segment made earlier in
+// the round is tested again against those.  Beads stay lattice points, so
+// every test is exact in long arithmetic.  Rounds go on until two in a row
+// delete nothing.
+class JSimplifier extends RecursiveAction
+{
+	static final int THRESHOLD=4096;	// fewer candidates are tested sequentially
+	static final int CHUNK=1024;	// fewest candidates per task
+	static final int LIMIT=1<<20;	// spread of coordinates that keeps the volumes in a long
+	static final int SPREAD=8;	// most grid cells per segment on average
+
+	int[] x,y,z;
+	int[] next,prev;	// neighbours of each bead still in the polygon, -1 once deleted
+	int m;	// beads left
+
+	// Grid of the segments, each under its first bead in every cell its bounding box meets
+	int lo;	// least coordinate, the corner of cell (0,0,0)
+	int g;	// cell edge
+	long[] keys;	// packed cells, -1 empty
+	int[] head,fresh;	// first entry of each cell, and of the segments made this round
+	int[] bead,link;	// entries: first bead of the segment, next entry of the same cell
+	int cells,entries;
+
+	int[] candidates;
+	boolean[] passed;
+	int from,to;
+
+	JSimplifier(JSimplifier s, int f, int t)
+	{
+		x=s.x;
+		y=s.y;
+		z=s.z;
+		next=s.next;
+		prev=s.prev;
+		lo=s.lo;
+		g=s.g;
+		keys=s.keys;
+		head=s.head;
+		fresh=s.fresh;
+		bead=s.bead;
+		link=s.link;
+		candidates=s.candidates;
+		passed=s.passed;
+		from=f;
+		to=t;
+	}
+
+	JSimplifier(JPolymer p, int l)
+	{
+		lo=l;
+		int n=p.size;
+		x=p.x;
+		y=p.y;
+		z=p.z;
+		next=new int[n];
+		prev=new int[n];
+		for(int i=0;i<n;i++)
+		{
+			next[i]=(i+1)%n;
+			prev[i]=(i+n-1)%n;
+		}
+		m=n;
+	}
+
+	// The polymer with as many beads deleted as triangle elimination allows, in
+	// the same order starting from the first bead left; p itself if it spreads
+	// too far for the volumes, null if it is not a closed polygon of lattice steps
+	static JPolymer Run(JPolymer p, boolean parallel)
+	{
+		int n=p.size;
+		if(n<4)
+			return null;
+		int lo=Integer.MAX_VALUE,hi=Integer.MIN_VALUE;
+		for(int i=0;i<n;i++)
+		{
+			int j=(i+1)%n;
+			if(Math.abs(p.x[j]-p.x[i])+Math.abs(p.y[j]-p.y[i])+Math.abs(p.z[j]-p.z[i])!=1)
+				return null;
+			lo=Math.min(lo,Math.min(p.x[i],Math.min(p.y[i],p.z[i])));
+			hi=Math.max(hi,Math.max(p.x[i],Math.max(p.y[i],p.z[i])));
+		}
+		if((long)hi-lo>=LIMIT)
+			return p;
+
+		JSimplifier s=new JSimplifier(p,lo);
+		int start=0,idle=0;
+		while(idle<2 && s.m>3)
+		{
+			if(s.Round(start,parallel)>0)
+				idle=0;
+			else
+				idle++;
+			start=s.next[start];	// the other half of the beads next round
+		}
+
+		JPolymer q=new JPolymer();
+		q.size=s.m;
+		q.x=new int[s.m];
+		q.y=new int[s.m];
+		q.z=new int[s.m];
+		for(int i=0,v=start;i<s.m;i++,v=s.next[v])
+		{
+			q.x[i]=p.x[v];
+			q.y[i]=p.y[v];
+			q.z[i]=p.z[v];
+		}
+		q.side=p.side;
+		return q;
+	}
+
+	// One round of deletions, taking every other bead after start; beads deleted
+	int Round(int start, boolean parallel)
+	{
+		int k=m/2;
+		candidates=new int[k];
+		passed=new boolean[k];
+		for(int i=0,v=next[start];i<k;i++,v=next[next[v]])
+			candidates[i]=v;	// start itself is never one, so the last is not next to the first
+		Build();
+
+		if(parallel && k>=THRESHOLD)
+			ForkJoinPool.commonPool().invoke(new JSimplifier(this,0,k));
+		else
+		{
+			for(int i=0;i<k;i++)
+				passed[i]=Free(candidates[i],false);
+		}
+
+		int deleted=0;
+		for(int i=0;i<k && m>3;i++)
+		{
+			int b=candidates[i];
+			if(!passed[i] || !Free(b,true))
+				continue;
+			int a=prev[b],c=next[b];
+			next[a]=c;
+			prev[c]=a;
+			next[b]=prev[b]=-1;
+			m--;
+			deleted++;
+			Insert(a,true);
+		}
+		return deleted;
+	}
+
+	protected void compute()
+	{
+		if(to-from>CHUNK)
+		{
+			int mid=(from+to)>>>1;
+			invokeAll(new JSimplifier(this,from,mid),new JSimplifier(this,mid,to));
+			return;
+		}
+		for(int i=from;i<to;i++)
+			passed[i]=Free(candidates[i],false);
+	}
+
+	// Grid of the polygon as it stands, with a cell edge that keeps the segments to
+	// a few cells each on average
+	void Build()
+	{
+		long sum=0;
+		for(int v=next[candidates[0]],i=0;i<m;i++,v=next[v])
+			sum+=Length(v);
+		for(g=(int)Math.max(1,sum/m);;g*=2)
+		{
+			long count=0;
+			for(int v=next[candidates[0]],i=0;i<m;i++,v=next[v])
+				count+=Cells(v);
+			if(count<=(long)SPREAD*m)
+				break;
+		}
+		Allocate(16);
+		bead=new int[SPREAD*m];
+		link=new int[SPREAD*m];
+		entries=0;
+		for(int v=next[candidates[0]],i=0;i<m;i++,v=next[v])
+			Insert(v,false);
+	}
+
+	void Allocate(int capacity)
+	{
+		keys=new long[capacity];
+		Arrays.fill(keys,-1);
+		head=new int[capacity];
+		fresh=new int[capacity];
+		Arrays.fill(head,-1);
+		Arrays.fill(fresh,-1);
+		cells=0;
+	}
+
+	// Twice the slots, keeping the cells and their entries
+	void Grow()
+	{
+		long[] k=keys;
+		int[] h=head,f=fresh;
+		Allocate(2*k.length);
+		for(int s=0;s<k.length;s++)
+			if(k[s]!=-1)
+			{
+				int t=Probe(k[s]);
+				keys[t]=k[s];
+				head[t]=h[s];
+				fresh[t]=f[s];
+				cells++;
+			}
+	}
+
+	// Longest side of the bounding box of segment v -> next[v]
+	int Length(int v)
+	{
+		int w=next[v];
+		return Math.max(Math.abs(x[w]-x[v]),Math.max(Math.abs(y[w]-y[v]),Math.abs(z[w]-z[v])));
+	}
+
+	// Grid cells the bounding box of segment v -> next[v] meets
+	long Cells(int v)
+	{
+		int w=next[v];
+		return (long)(Cell(Math.max(x[v],x[w]))-Cell(Math.min(x[v],x[w]))+1)*(Cell(Math.max(y[v],y[w]))-Cell(Math.min(y[v],y[w]))+1)*(Cell(Math.max(z[v],z[w]))-Cell(Math.min(z[v],z[w]))+1);
+	}
+
+	// Cell along one axis of coordinate c
+	int Cell(int c)
+	{
+		return (c-lo)/g;
+	}
+
+	// Enter segment v -> next[v] in every cell its bounding box meets
+	void Insert(int v, boolean made)
+	{
+		int w=next[v];
+		for(int i=Cell(Math.min(x[v],x[w]));i<=Cell(Math.max(x[v],x[w]));i++)
+			for(int j=Cell(Math.min(y[v],y[w]));j<=Cell(Math.max(y[v],y[w]));j++)
+				for(int k=Cell(Math.min(z[v],z[w]));k<=Cell(Math.max(z[v],z[w]));k++)
+				{
+					int s=Slot(i,j,k,true);
+					if(entries==bead.length)
+					{
+						bead=Arrays.copyOf(bead,2*entries);
+						link=Arrays.copyOf(link,2*entries);
+					}
+					bead[entries]=v;
+					if(made)
+					{
+						link[entries]=fresh[s];
+						fresh[s]=entries++;
+					}
+					else
+					{
+						link[entries]=head[s];
+						head[s]=entries++;
+					}
+				}
+	}
+
+	// Slot of cell (i,j,k), made if asked; -1 if absent
+	int Slot(int i, int j, int k, boolean make)
+	{
+		long key=JLattice.Pack(i,j,k);
+		int s=Probe(key);
+		if(keys[s]==key)
+			return s;
+		if(!make)
+			return -1;
+		if(2*(cells+1)>keys.length)	// keep load factor at or below 1/2
+		{
+			Grow();
+			s=Probe(key);
+		}
+		keys[s]=key;
+		cells++;
+		return s;
+	}
+
+	// Slot holding key, or the empty slot it would go in
+	int Probe(long key)
+	{
+		int mask=keys.length-1;
+		int s=JLattice.Hash(key)&mask;
+		while(keys[s]!=-1 && keys[s]!=key)
+			s=(s+1)&mask;
+		return s;
+	}
+
+	// No segment but its own two meets the triangle bead b makes with its
+	// neighbours; only the segments made this round if made is set
+	boolean Free(int b, boolean made)
+	{
+		int a=prev[b],c=next[b];
+		long[] n=Cross(a,b,c);
+		if(n[0]==0 && n[1]==0 && n[2]==0)	// straight through b
+			return true;
+		for(int i=Cell(Math.min(x[a],Math.min(x[b],x[c])));i<=Cell(Math.max(x[a],Math.max(x[b],x[c])));i++)
+			for(int j=Cell(Math.min(y[a],Math.min(y[b],y[c])));j<=Cell(Math.max(y[a],Math.max(y[b],y[c])));j++)
+				for(int k=Cell(Math.min(z[a],Math.min(z[b],z[c])));k<=Cell(Math.max(z[a],Math.max(z[b],z[c])));k++)
+				{
+					int s=Slot(i,j,k,false);
+					if(s<0)
+						continue;
+					for(int e=(made?fresh[s]:head[s]);e>=0;e=link[e])
+					{
+						int v=bead[e];
+						if(next[v]<0 || v==a || v==b)	// deleted, or a side of the triangle
+							continue;
+						if(Meets(v,a,b,c,n))
+							return false;
+					}
+				}
+		return true;
+	}
+
+	// Segment v -> next[v] meets triangle abc (normal n), other than where it
+	// joins the polygon at a or c
+	boolean Meets(int v, int a, int b, int c, long[] n)
+	{
+		int w=next[v];
+		if(w==a)
+			return Joins(v,a,b,c,n);
+		if(v==c)
+			return Joins(w,c,b,a,n);
+		long ov=Volume(a,b,c,v),ow=Volume(a,b,c,w);
+		if((ov>0 && ow>0) || (ov<0 && ow<0))
+			return false;
+		if(ov==0 && ow==0)
+			return Flat(v,w,a,b,c,n);
+		long s1=Volume(v,w,a,b),s2=Volume(v,w,b,c),s3=Volume(v,w,c,a);	// the line through v,w passes the triangle
+		return (s1>=0 && s2>=0 && s3>=0) || (s1<=0 && s2<=0 && s3<=0);
+	}
+
+	// Segment from s (corner a or c of the triangle) to f goes into the triangle
+	// beyond s; t is the corner at the other end of s's side, u the far corner
+	boolean Joins(int f, int s, int t, int u, long[] n)
+	{
+		if(Volume(s,t,u,f)!=0)
+			return false;
+		int d=Axis(n);
+		long ts=Cross2(s,t,f,d),fu=Cross2(s,f,u,d),tu=Cross2(s,t,u,d);
+		return (tu>0?ts>=0 && fu>=0:ts<=0 && fu<=0);	// f lies in the angle at s
+	}
+
+	// Segment vw, in the plane of triangle abc, meets it
+	boolean Flat(int v, int w, int a, int b, int c, long[] n)
+	{
+		int d=Axis(n);
+		return Inside(v,a,b,c,d) || Inside(w,a,b,c,d) || Crosses(v,w,a,b,d) || Crosses(v,w,b,c,d) || Crosses(v,w,c,a,d);
+	}
+
+	// Point p in the closed triangle abc, seen along axis d
+	boolean Inside(int p, int a, int b, int c, int d)
+	{
+		long s1=Cross2(a,b,p,d),s2=Cross2(b,c,p,d),s3=Cross2(c,a,p,d);
+		return (s1>=0 && s2>=0 && s3>=0) || (s1<=0 && s2<=0 && s3<=0);
+	}
+
+	// Closed segments pq and rs meet, seen along axis d
+	boolean Crosses(int p, int q, int r, int s, int d)
+	{
+		long o1=Cross2(p,q,r,d),o2=Cross2(p,q,s,d),o3=Cross2(r,s,p,d),o4=Cross2(r,s,q,d);
+		if(((o1>0 && o2<0) || (o1<0 && o2>0)) && ((o3>0 && o4<0) || (o3<0 && o4>0)))
+			return true;
+		return (o1==0 && Between(p,q,r)) || (o2==0 && Between(p,q,s)) || (o3==0 && Between(r,s,p)) || (o4==0 && Between(r,s,q));
+	}
+
+	// Point r, on the line through p and q, lies between them
+	boolean Between(int p, int q, int r)
+	{
+		return Math.min(x[p],x[q])<=x[r] && x[r]<=Math.max(x[p],x[q])
+			&& Math.min(y[p],y[q])<=y[r] && y[r]<=Math.max(y[p],y[q])
+			&& Math.min(z[p],z[q])<=z[r] && z[r]<=Math.max(z[p],z[q]);
+	}
+
+	// Normal (b-a)x(c-a)
+	long[] Cross(int a, int b, int c)
+	{
+		long ux=x[b]-x[a],uy=y[b]-y[a],uz=z[b]-z[a];
+		long wx=x[c]-x[a],wy=y[c]-y[a],wz=z[c]-z[a];
+		return new long[]{uy*wz-uz*wy,uz*wx-ux*wz,ux*wy-uy*wx};
+	}
+
+	// Axis the normal n is largest along; the plane is seen along it
+	static int Axis(long[] n)
+	{
+		long ax=Math.abs(n[0]),ay=Math.abs(n[1]),az=Math.abs(n[2]);
+		return (ax>=ay && ax>=az?0:(ay>=az?1:2));
+	}
+
+	// Component d of (b-a)x(c-a)
+	long Cross2(int a, int b, int c, int d)
+	{
+		if(d==0)
+			return (long)(y[b]-y[a])*(z[c]-z[a])-(long)(z[b]-z[a])*(y[c]-y[a]);
+		if(d==1)
+			return (long)(z[b]-z[a])*(x[c]-x[a])-(long)(x[b]-x[a])*(z[c]-z[a]);
+		return (long)(x[b]-x[a])*(y[c]-y[a])-(long)(y[b]-y[a])*(x[c]-x[a]);
+	}
+
+	// Six times the signed volume of abcd
+	long Volume(int a, int b, int c, int d)
+	{
+		long ux=x[b]-x[a],uy=y[b]-y[a],uz=z[b]-z[a];
+		long vx=x[c]-x[a],vy=y[c]-y[a],vz=z[c]-z[a];
+		long wx=x[d]-x[a],wy=y[d]-y[a],wz=z[d]-z[a];
+		return ux*(vy*wz-vz*wy)-uy*(vx*wz-vz*wx)+uz*(vx*wy-vy*wx);
+	}
+}
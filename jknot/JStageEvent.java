@@ -0,0 +1,24 @@
+package jknot;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+// Flight Recorder event for one stage of one run, committed by JMonitor
+@Name("jknot.Stage")
+@Label("Knot Stage")
+@Category("JKnot")
+class JStageEvent extends Event
+{
+	@Label("Stage")
+	String stage;
+
+	@Label("Time")
+	@Timespan(Timespan.NANOSECONDS)
+	long time;
+
+	@Label("Crossings")	// in the sequence after the stage
+	int crossings;
+}
@@ -0,0 +1,121 @@
+package jknot;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+// Reads the conformations written by JTrajectoryWriter straight into a JPolymer,
+// one at a time, without going through text
+public class JTrajectoryReader
+{
+	static final int[] DX={1,-1,0,0,0,0},DY={0,0,1,-1,0,0},DZ={0,0,0,0,1,-1};	// by step code
+	static final int MAXBEADS=1<<26;	// most beads in a conformation, so a corrupt count cannot ask for the heap
+	static final int CHUNK=1<<16;	// step bytes read before the buffer grows past what has arrived
+
+	DataInputStream in;
+	byte[] steps=new byte[0];
+
+	public JTrajectoryReader(String file) throws IOException
+	{
+		this(new FileInputStream(file));
+	}
+
+	public JTrajectoryReader(InputStream i) throws IOException
+	{
+		in=new DataInputStream(new BufferedInputStream(i,1<<16));
+		if(in.readInt()!=JTrajectoryWriter.MAGIC)
+		{
+			in.close();
+			throw new IOException("not a binary conformation file");
+		}
+	}
+
+	// File starts with the binary format's magic number
+	static boolean IsBinary(String file) throws IOException
+	{
+		DataInputStream i=new DataInputStream(new FileInputStream(file));
+		try
+		{
+			return i.readInt()==JTrajectoryWriter.MAGIC;
+		}
+		catch(EOFException ex)
+		{
+			return false;
+		}
+		finally
+		{
+			i.close();
+		}
+	}
+
+	// Next conformation into p, in projection c as for JPolymer.Parse; false at the end
+	public boolean Next(JPolymer p, int c) throws IOException
+	{
+		int size;
+		try
+		{
+			size=in.readInt();
+		}
+		catch(EOFException ex)
+		{
+			return false;
+		}
+		if(size<0 || size>MAXBEADS)
+			throw new IOException("bad bead count "+size);
+		if(size==0)
+		{
+			p.size=0;
+			p.side=1;
+			return true;
+		}
+		int a=in.readInt(),b=in.readInt(),d=in.readInt();
+		ReadSteps((int)((3L*(size-1)+7)/8));	// a short stream ends here, before the coordinates are made
+		p.size=size;
+		p.x=new int[size];
+		p.y=new int[size];
+		p.z=new int[size];
+		p.Put(0,a,b,d,c);
+		int bits=0,n=0,k=0;
+		for(int i=1;i<size;i++)
+		{
+			if(n<3)
+			{
+				bits|=(steps[k++]&0xff)<<n;
+				n+=8;
+			}
+			int code=bits&7;
+			bits>>=3;
+			n-=3;
+			if(code>5)
+				throw new IOException("bad step at bead "+i);
+			a+=DX[code];
+			b+=DY[code];
+			d+=DZ[code];
+			p.Put(i,a,b,d,c);
+		}
+		p.side=p.Side();
+		return true;
+	}
+
+	// Step codes into steps, which grows no faster than the bytes arrive
+	void ReadSteps(int bytes) throws IOException
+	{
+		for(int done=0;done<bytes;)
+		{
+			int n=Math.min(bytes-done,Math.max(CHUNK,done));
+			if(steps.length<done+n)
+				steps=Arrays.copyOf(steps,done+n);
+			in.readFully(steps,done,n);
+			done+=n;
+		}
+	}
+
+	public void close() throws IOException
+	{
+		in.close();
+	}
+}
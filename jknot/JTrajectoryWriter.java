@@ -0,0 +1,86 @@
+package jknot;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Binary conformations, one after another for a trajectory.  The file starts
+// with MAGIC; each conformation is the number of beads, the coordinates of bead
+// 0 and then the unit step to each following bead, 3 bits a step (the SegDir
+// directions, code = index in STEPS), packed from the low bit of each byte up.
+// Ints are big-endian.  A lattice chain takes 3/8 byte a bead instead of a line
+// of text.
+public class JTrajectoryWriter
+{
+	static final int MAGIC=0x4a4b4e31;	// "JKN1"
+	static final String STEPS="FBRLUD";	// +x,-x,+y,-y,+z,-z
+
+	DataOutputStream out;
+
+	public JTrajectoryWriter(String file) throws IOException
+	{
+		this(new FileOutputStream(file));
+	}
+
+	public JTrajectoryWriter(OutputStream o) throws IOException
+	{
+		out=new DataOutputStream(new BufferedOutputStream(o,1<<16));
+		out.writeInt(MAGIC);
+	}
+
+	// Append a conformation; consecutive beads must be one lattice step apart
+	public void Add(JPolymer p) throws IOException
+	{
+		out.writeInt(p.size);
+		if(p.size==0)
+			return;
+		out.writeInt(p.x[0]);
+		out.writeInt(p.y[0]);
+		out.writeInt(p.z[0]);
+		int bits=0,n=0;	// bits waiting to be written, and how many
+		for(int i=1;i<p.size;i++)
+		{
+			int code=Step(p.x[i]-p.x[i-1],p.y[i]-p.y[i-1],p.z[i]-p.z[i-1]);
+			if(code<0)
+				throw new IllegalArgumentException("beads "+(i-1)+" and "+i+" are not neighbors");
+			bits|=code<<n;
+			n+=3;
+			if(n>=8)
+			{
+				out.write(bits);
+				bits>>=8;
+				n-=8;
+			}
+		}
+		if(n>0)
+			out.write(bits);
+	}
+
+	// Code of a unit step, -1 if it is not one
+	static int Step(int dx, int dy, int dz)
+	{
+		if(dy==0 && dz==0)
+		{
+			if(dx==1) return 0;
+			if(dx==-1) return 1;
+		}
+		if(dx==0 && dz==0)
+		{
+			if(dy==1) return 2;
+			if(dy==-1) return 3;
+		}
+		if(dx==0 && dy==0)
+		{
+			if(dz==1) return 4;
+			if(dz==-1) return 5;
+		}
+		return -1;
+	}
+
+	public void close() throws IOException
+	{
+		out.close();
+	}
+}
@@ -0,0 +1,176 @@
+package jknot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+// JIncremental after kink and crankshaft moves against a full run of a copy,
+// which it must give exactly, also where it has to rebuild its index
+class JIncrementalTest
+{
+	static final int[][] UNIT={{1,0,0},{-1,0,0},{0,1,0},{0,-1,0},{0,0,1},{0,0,-1}};
+
+	JPolymer p;
+	JIncremental inc;
+	int rebuilds;
+	Random random;
+
+	void Start(int size, long seed)
+	{
+		p=new JGenerator(size,seed).Next();
+		random=new Random(seed);
+		inc=new JIncremental(new JEngine(),p);
+		rebuilds=0;
+	}
+
+	static JPolymer Copy(JPolymer p)
+	{
+		JPolymer q=new JPolymer();
+		q.size=p.size;
+		q.side=p.side;
+		q.x=p.x.clone();
+		q.y=p.y.clone();
+		q.z=p.z.clone();
+		return q;
+	}
+
+	// Tell JIncremental the beads moved and compare it with a full run
+	void Check(int... beads)
+	{
+		JAnalysis index=inc.Index;
+		String got=inc.Move(beads).output;
+		if(inc.Index!=index)
+			rebuilds++;
+		assertEquals(new JEngine().Analyze(Copy(p)).output,got);
+	}
+
+	HashSet<Long> Sites()
+	{
+		HashSet<Long> s=new HashSet<Long>();
+		for(int i=0;i<p.size;i++)
+			s.add(JLattice.Pack(p.x[i],p.y[i],p.z[i]));
+		return s;
+	}
+
+	void Set(int i, int x, int y, int z)
+	{
+		p.x[i]=x;
+		p.y[i]=y;
+		p.z[i]=z;
+	}
+
+	// Bead i at a corner moved to the opposite corner of its square; false if
+	// it is not at a corner, or free is set and the site is taken
+	boolean Kink(int i, boolean free)
+	{
+		int n=p.size,a=(i+n-1)%n,b=(i+1)%n;
+		int x=p.x[a]+p.x[b]-p.x[i],y=p.y[a]+p.y[b]-p.y[i],z=p.z[a]+p.z[b]-p.z[i];
+		if(Math.abs(p.x[a]-p.x[b])+Math.abs(p.y[a]-p.y[b])+Math.abs(p.z[a]-p.z[b])!=2 || (x==p.x[i] && y==p.y[i] && z==p.z[i]))
+			return false;
+		if(free && Sites().contains(JLattice.Pack(x,y,z)))
+			return false;
+		Set(i,x,y,z);
+		return true;
+	}
+
+	// Beads i and i+1 of a U between neighbours i-1 and i+2 turned about the
+	// axis from i-1 to i+2; false if they make no U or a site is taken
+	boolean Crankshaft(int i, int[] u)
+	{
+		int n=p.size,a=(i+n-1)%n,j=(i+1)%n,d=(i+2)%n;
+		int ax=p.x[d]-p.x[a],ay=p.y[d]-p.y[a],az=p.z[d]-p.z[a];
+		int ux=p.x[i]-p.x[a],uy=p.y[i]-p.y[a],uz=p.z[i]-p.z[a];
+		if(Math.abs(ax)+Math.abs(ay)+Math.abs(az)!=1 || Math.abs(ux)+Math.abs(uy)+Math.abs(uz)!=1
+			|| p.x[j]-p.x[d]!=ux || p.y[j]-p.y[d]!=uy || p.z[j]-p.z[d]!=uz)
+			return false;
+		if(u[0]*ax+u[1]*ay+u[2]*az!=0 || (u[0]==ux && u[1]==uy && u[2]==uz))
+			return false;
+		HashSet<Long> s=Sites();
+		if(s.contains(JLattice.Pack(p.x[a]+u[0],p.y[a]+u[1],p.z[a]+u[2])) || s.contains(JLattice.Pack(p.x[d]+u[0],p.y[d]+u[1],p.z[d]+u[2])))
+			return false;
+		Set(i,p.x[a]+u[0],p.y[a]+u[1],p.z[a]+u[2]);
+		Set(j,p.x[d]+u[0],p.y[d]+u[1],p.z[d]+u[2]);
+		return true;
+	}
+
+	// Random moves to free sites; the removed sites fill the lattice index
+	// until it is rebuilt
+	@Test
+	void RandomMoves()
+	{
+		Start(120,3);
+		int moves=0;
+		for(int k=0;k<20000 && moves<3000;k++)
+		{
+			int i=random.nextInt(p.size);
+			if(random.nextBoolean())
+			{
+				if(!Kink(i,true))
+					continue;
+				Check(i);
+			}
+			else
+			{
+				if(!Crankshaft(i,UNIT[random.nextInt(6)]))
+					continue;
+				Check(i,(i+1)%p.size);
+			}
+			moves++;
+		}
+		assertTrue(moves>=3000,moves+" moves");
+		assertTrue(rebuilds>0,"lattice never full");
+	}
+
+	// A kink onto a taken site makes the polymer cross itself, then is undone
+	@Test
+	void OccupiedSite()
+	{
+		Start(150,5);
+		HashSet<Long> sites;
+		int tried=0;
+		for(int i=0;i<p.size && tried<10;i++)
+		{
+			int x=p.x[i],y=p.y[i],z=p.z[i];
+			sites=Sites();
+			if(!Kink(i,false))
+				continue;
+			if(!sites.contains(JLattice.Pack(p.x[i],p.y[i],p.z[i])))
+			{
+				Set(i,x,y,z);
+				continue;
+			}
+			JAnalysis index=inc.Index;
+			Check(i);
+			assertNotSame(index,inc.Index);
+			Set(i,x,y,z);
+			Check(i);
+			tried++;
+		}
+		assertTrue(tried>0,"no kink onto a taken site");
+	}
+
+	// A larger side changes the projection of every bead, between kinks
+	@Test
+	void SideChange()
+	{
+		Start(100,7);
+		int moves=0;
+		for(int k=0;k<5000 && moves<100;k++)
+		{
+			int i=random.nextInt(p.size);
+			if(!Kink(i,true))
+				continue;
+			if(++moves%10==0)
+				p.side++;
+			int before=rebuilds;
+			Check(i);
+			if(moves%10==0)
+				assertEquals(before+1,rebuilds);
+		}
+		assertEquals(100,moves);
+	}
+}
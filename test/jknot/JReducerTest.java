@@ -0,0 +1,102 @@
+package jknot;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+// JReducer against the array passes of ReduceUnpaired, which it must give
+// exactly: the same sequence left and the same moves counted
+class JReducerTest
+{
+	// Crossings of a Gauss code, each label once over and once under in random
+	// order and with random signs, matched as ParseGauss matches them
+	static JAnalysis Gauss(Random random, int n)
+	{
+		int[] label=new int[2*n];
+		for(int i=0;i<2*n;i++)
+			label[i]=i/2+1;
+		for(int i=2*n-1;i>0;i--)
+		{
+			int j=random.nextInt(i+1),tmp=label[i];
+			label[i]=label[j];
+			label[j]=tmp;
+		}
+		boolean[] over=new boolean[n+1],plus=new boolean[n+1],seen=new boolean[n+1];
+		for(int i=1;i<=n;i++)
+		{
+			over[i]=random.nextBoolean();
+			plus[i]=random.nextBoolean();
+		}
+		JAnalysis a=new JAnalysis(new JEngine(),null);
+		for(int i=0;i<2*n;i++)
+		{
+			int l=label[i];
+			int num=(plus[l]?l:-l);
+			a.Crossing.Add(over[l]!=seen[l],num,num,-1,-1,true,num>0?'F':'L',num>0?'L':'F');
+			seen[l]=true;
+		}
+		a.MatchPartnerObjects();
+		return a;
+	}
+
+	// Crossings of a sampled polymer, detected and matched
+	static JAnalysis Polymer(JPolymer p)
+	{
+		JAnalysis a=new JAnalysis(new JEngine(),p);
+		a.IndexPolymer(p.size);
+		a.DetectCrossings();
+		a.MatchPartnerObjects();
+		return a;
+	}
+
+	// Reduce one of two identical analyses each way and compare; false if
+	// JReducer cannot pair the crossings, so only the array passes apply
+	static boolean Same(JAnalysis linked, JAnalysis array) throws Exception
+	{
+		JReducer r=new JReducer(linked.Crossing);
+		r.moves=linked.Moves;
+		if(!r.Pair())
+			return false;
+		r.Reduce();
+		array.ReduceUnpaired();
+		assertEquals(array.Crossing.size,linked.Crossing.size);
+		assertArrayEquals(Arrays.copyOf(array.Crossing.seq,array.Crossing.size),Arrays.copyOf(linked.Crossing.seq,linked.Crossing.size));
+		assertArrayEquals(array.Moves,linked.Moves);
+		return true;
+	}
+
+	@Test
+	void GaussCodes() throws Exception
+	{
+		int paired=0,moves=0;
+		for(int k=0;k<3000;k++)
+		{
+			int n=1+k%40;
+			if(Same(Gauss(new Random(k),n),Gauss(new Random(k),n)))
+				paired++;
+			JAnalysis a=Gauss(new Random(k),n);
+			a.ReduceUnpaired();
+			moves+=a.Moves[0]+a.Moves[1]+a.Moves[2]+a.Moves[3];
+		}
+		assertTrue(paired>2000,paired+" paired");
+		assertTrue(moves>0);
+	}
+
+	@Test
+	void Polymers() throws Exception
+	{
+		int paired=0;
+		JGenerator g=new JGenerator(400,4);
+		for(int k=0;k<100;k++)
+		{
+			JPolymer p=g.Next();
+			if(Same(Polymer(p),Polymer(p)))
+				paired++;
+		}
+		assertEquals(100,paired);
+	}
+}
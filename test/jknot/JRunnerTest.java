@@ -0,0 +1,106 @@
+package jknot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// A file that cannot be read gives one error result and the batch goes on
+class JRunnerTest
+{
+	static final String TREFOIL="0 0 0\n0 0 1\n0 0 2\n0 0 3\n1 0 3\n1 0 2\n1 0 1\n1 0 0\n2 0 0\n2 0 1\n2 0 2\n2 0 3\n2 1 3\n2 1 2\n2 2 2\n2 2 1\n2 2 0\n2 3 0\n3 3 0\n3 3 1\n2 3 1\n2 3 2\n3 3 2\n3 3 3\n2 3 3\n1 3 3\n1 3 2\n1 3 1\n1 3 0\n0 3 0\n0 3 1\n0 3 2\n0 3 3\n0 2 3\n0 1 3\n1 1 3\n1 1 2\n1 1 1\n1 1 0\n2 1 0\n2 1 1\n3 1 1\n3 1 2\n3 1 3\n3 0 3\n3 0 2\n3 0 1\n3 0 0\n3 1 0\n3 2 0\n3 2 1\n3 2 2\n3 2 3\n2 2 3\n1 2 3\n1 2 2\n1 2 1\n1 2 0\n0 2 0\n0 2 1\n0 2 2\n0 1 2\n0 1 1\n0 1 0\n";	// the applet's first example
+
+	@TempDir
+	Path dir;
+
+	// Results by input, in input order
+	static ArrayList<Object[]> Run(String... files)
+	{
+		ArrayList<Iterator<JInput>> sources=new ArrayList<Iterator<JInput>>();
+		for(String f:files)
+			sources.add(JRunner.Coordinates(f,0));
+		final ArrayList<Object[]> results=new ArrayList<Object[]>();
+		JRunner.Run(new JEngine(),JRunner.Concat(sources.iterator()),new JRunner.Sink()
+		{
+			public void Result(JInput in, JResult r)
+			{
+				results.add(new Object[] {in.id,r});
+			}
+		},true);
+		return results;
+	}
+
+	String Text() throws IOException
+	{
+		File f=dir.resolve("trefoil.txt").toFile();
+		FileWriter w=new FileWriter(f);
+		w.write(TREFOIL);
+		w.close();
+		return f.getPath();
+	}
+
+	// Three conformations; with cut, less the last bytes of the third
+	String Binary(String name, int cut) throws IOException
+	{
+		File f=dir.resolve(name).toFile();
+		JTrajectoryWriter w=new JTrajectoryWriter(f.getPath());
+		JPolymer p=new JPolymer();
+		p.Parse(TREFOIL,0);
+		for(int i=0;i<3;i++)
+			w.Add(p);
+		w.close();
+		RandomAccessFile r=new RandomAccessFile(f,"rw");
+		r.setLength(r.length()-cut);
+		r.close();
+		return f.getPath();
+	}
+
+	@Test
+	void MissingFile() throws IOException
+	{
+		String t=Text(),missing=dir.resolve("missing.txt").toString();
+		ArrayList<Object[]> r=Run(t,missing,t);
+		assertEquals(3,r.size());
+		assertNull(((JResult)r.get(0)[1]).error);
+		assertEquals(missing,r.get(1)[0]);
+		assertNotNull(((JResult)r.get(1)[1]).error);
+		assertNull(((JResult)r.get(2)[1]).error);
+		assertEquals(((JResult)r.get(0)[1]).determinant,((JResult)r.get(2)[1]).determinant);
+	}
+
+	@Test
+	void TruncatedTrajectory() throws IOException
+	{
+		String t=Text(),good=Binary("good.jkn",0),cut=Binary("cut.jkn",3);
+		ArrayList<Object[]> r=Run(t,good,cut,t);
+		String[] ids=new String[r.size()];
+		for(int i=0;i<ids.length;i++)
+			ids[i]=(String)r.get(i)[0];
+		assertEquals(Arrays.asList(t,good+"#0",good+"#1",good+"#2",cut+"#0",cut+"#1",cut+"#2",t),Arrays.asList(ids));
+		for(int i=0;i<ids.length;i++)
+		{
+			JResult x=(JResult)r.get(i)[1];
+			if(i==6)
+				assertNotNull(x.error);
+			else
+				assertEquals("3",""+x.determinant,ids[i]+": "+x.error);
+		}
+	}
+
+	@Test
+	void NoCrossings()
+	{
+		JResult r=new JEngine().Analyze(JRunsTest.Polymer("0 0 0\n0 0 1\n1 0 1\n1 0 0\n"));
+		assertEquals("1",JRunner.Determinant(r));
+	}
+}
@@ -0,0 +1,80 @@
+package jknot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+// JRuns against the lattice scan, which it must give exactly
+class JRunsTest
+{
+	static String Output(JPolymer p, boolean runs)
+	{
+		JEngine e=new JEngine();
+		e.runs=runs;
+		return e.Analyze(p).output;
+	}
+
+	static JPolymer Polymer(String s)
+	{
+		JPolymer p=new JPolymer();
+		p.Parse(s,0);
+		return p;
+	}
+
+	// Closed random walk of n steps and the way back, free to revisit sites
+	static JPolymer Walk(Random r, int n)
+	{
+		StringBuilder s=new StringBuilder();
+		int x=0,y=0,z=0;
+		for(int i=0;i<n;i++)
+		{
+			s.append(x+" "+y+" "+z+"\n");
+			int d=r.nextInt(6);
+			x+=(d==0?1:d==1?-1:0);
+			y+=(d==2?1:d==3?-1:0);
+			z+=(d==4?1:d==5?-1:0);
+		}
+		while(x!=0 || y!=0 || z!=0)
+		{
+			s.append(x+" "+y+" "+z+"\n");
+			if(x!=0)
+				x-=Integer.signum(x);
+			else if(y!=0)
+				y-=Integer.signum(y);
+			else
+				z-=Integer.signum(z);
+		}
+		return Polymer(s.toString());
+	}
+
+	@Test
+	void Backtrack()
+	{
+		// 0 0 1 -> 0 -1 1 -> 0 0 1 goes back over the step it made
+		JPolymer p=Polymer("0 0 0\n0 0 1\n0 -1 1\n0 0 1\n1 0 1\n1 0 0\n");
+		assertEquals(Output(p,false),Output(p,true));
+	}
+
+	@Test
+	void RandomWalks()
+	{
+		Random r=new Random(1);
+		for(int k=0;k<500;k++)
+		{
+			JPolymer p=Walk(r,20+r.nextInt(60));
+			assertEquals(Output(p,false),Output(p,true),"walk "+k);
+		}
+	}
+
+	@Test
+	void Generated()
+	{
+		JGenerator g=new JGenerator(300,2);
+		for(int k=0;k<20;k++)
+		{
+			JPolymer p=g.Next();
+			assertEquals(Output(p,false),Output(p,true),"sample "+k);
+		}
+	}
+}